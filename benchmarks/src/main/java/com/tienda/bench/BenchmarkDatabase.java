@@ -0,0 +1,276 @@
+package com.tienda.bench;
+
+import com.tienda.dao.DelinquencySummaryDAO;
+import com.tienda.dao.SalesRollupDAO;
+import com.tienda.util.DatabaseInitializer;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Base H2 en memoria (modo SQL Server) para los benchmarks. El volumen se
+ * define por la cantidad de ventas; el resto de tablas crece en proporción.
+ */
+public final class BenchmarkDatabase {
+
+    public static final String URL =
+            "jdbc:h2:mem:tienda_bench;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    public static final String USERNAME = "sa";
+    public static final String PASSWORD = "";
+
+    public static final int CATEGORIES = 8;
+    public static final int USERS = 10;
+    public static final int DETAILS_PER_SALE = 3;
+    public static final int QUOTAS_PER_CREDIT = 12;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Apunta DatabaseConnection a H2. Debe llamarse antes de crear cualquier DAO.
+     */
+    public static void configure() {
+        System.setProperty("tienda.db.mode", "embedded");
+        System.setProperty("tienda.db.url", URL);
+        System.setProperty("tienda.db.user", USERNAME);
+        System.setProperty("tienda.db.password", PASSWORD);
+    }
+
+    public static int clientCount(int sales) {
+        return Math.max(50, sales / 10);
+    }
+
+    public static int productCount(int sales) {
+        return Math.max(100, sales / 10);
+    }
+
+    public static String productCode(int index) {
+        return String.format("P%06d", index);
+    }
+
+    /**
+     * Recrea el esquema con DatabaseInitializer (las mismas tablas, migraciones
+     * e índices que usa la aplicación) y lo llena con datos deterministas
+     */
+    public static void seed(int sales) throws SQLException {
+        configure();
+        try (Connection conn = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+
+        new DatabaseInitializer().initializeSchema();
+
+        try (Connection conn = DriverManager.getConnection(URL, USERNAME, PASSWORD)) {
+            conn.setAutoCommit(false);
+            Random random = new Random(42);
+            int clients = clientCount(sales);
+            int products = productCount(sales);
+
+            insertReferenceData(conn, clients, products, random);
+            insertSales(conn, sales, clients, products, random);
+            insertCredits(conn, sales, random);
+            insertAccessLog(conn, sales / 2, random);
+            new DelinquencySummaryDAO().rebuild(conn);
+            new SalesRollupDAO().rebuild(conn);
+            conn.commit();
+        }
+    }
+
+    private static void insertReferenceData(Connection conn, int clients, int products, Random random)
+            throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO roles (name, description) VALUES ('ADMIN', 'Administrador'), ('SELLER', 'Vendedor')");
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO users (name, email, password, phone_number, role_id) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= USERS; i++) {
+                stmt.setString(1, "Usuario " + i);
+                stmt.setString(2, "usuario" + i + "@tienda.com");
+                stmt.setString(3, "clave" + i);
+                stmt.setString(4, "300" + i);
+                stmt.setInt(5, i == 1 ? 1 : 2);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO product_categories (name, iva, utility) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= CATEGORIES; i++) {
+                stmt.setString(1, "Categoría " + i);
+                stmt.setDouble(2, 0.19);
+                stmt.setDouble(3, 0.30);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO clients (document_type, document_number, name, email, phone_number, address) VALUES ('CC', ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= clients; i++) {
+                stmt.setString(1, String.valueOf(1_000_000 + i));
+                stmt.setString(2, "Cliente " + i);
+                stmt.setString(3, "cliente" + i + "@correo.com");
+                stmt.setString(4, "310" + i);
+                stmt.setString(5, "Calle " + i);
+                stmt.addBatch();
+                flushEvery(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO products (code, name, description, stock, acquisition_value, sale_value, category_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= products; i++) {
+                double cost = 50_000 + random.nextInt(2_000_000);
+                stmt.setString(1, productCode(i));
+                stmt.setString(2, "Producto " + i);
+                stmt.setString(3, "Descripción del producto " + i);
+                stmt.setInt(4, random.nextInt(200));
+                stmt.setDouble(5, cost);
+                stmt.setDouble(6, cost * 1.3);
+                stmt.setInt(7, 1 + (i % CATEGORIES));
+                stmt.addBatch();
+                flushEvery(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void insertSales(Connection conn, int sales, int clients, int products, Random random)
+            throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement saleStmt = conn.prepareStatement(
+                "INSERT INTO sales (date, sale_type, subtotal, iva_total, total, client_id, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement detailStmt = conn.prepareStatement(
+                "INSERT INTO sale_details (amount, unit_price, iva_applied, subtotal, sale_id, product_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            for (int saleId = 1; saleId <= sales; saleId++) {
+                double subtotal = 0;
+                for (int d = 0; d < DETAILS_PER_SALE; d++) {
+                    int amount = 1 + random.nextInt(3);
+                    double unitPrice = 65_000 + random.nextInt(2_600_000);
+                    double lineSubtotal = amount * unitPrice;
+                    subtotal += lineSubtotal;
+                    detailStmt.setInt(1, amount);
+                    detailStmt.setDouble(2, unitPrice);
+                    detailStmt.setDouble(3, lineSubtotal * 0.19);
+                    detailStmt.setDouble(4, lineSubtotal);
+                    detailStmt.setInt(5, saleId);
+                    detailStmt.setInt(6, 1 + random.nextInt(products));
+                    detailStmt.addBatch();
+                }
+
+                // Ventas repartidas en los dos últimos años
+                saleStmt.setDate(1, Date.valueOf(today.minusDays(random.nextInt(730))));
+                saleStmt.setString(2, isCreditSale(saleId) ? "CREDIT" : "COUNT");
+                saleStmt.setDouble(3, subtotal);
+                saleStmt.setDouble(4, subtotal * 0.19);
+                saleStmt.setDouble(5, subtotal * 1.19);
+                saleStmt.setInt(6, 1 + random.nextInt(clients));
+                saleStmt.setInt(7, 1 + random.nextInt(USERS));
+                saleStmt.addBatch();
+
+                if (saleId % BATCH_SIZE == 0) {
+                    saleStmt.executeBatch();
+                    detailStmt.executeBatch();
+                }
+            }
+            saleStmt.executeBatch();
+            detailStmt.executeBatch();
+        }
+    }
+
+    /**
+     * Aproximadamente el 30% de las ventas son a crédito
+     */
+    private static boolean isCreditSale(int saleId) {
+        return saleId % 10 < 3;
+    }
+
+    private static void insertCredits(Connection conn, int sales, Random random) throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement creditStmt = conn.prepareStatement(
+                "INSERT INTO credits (initial_quota, amount_financed, months, interest_rate, created_at, state, sale_id) VALUES (?, ?, ?, 0.05, ?, ?, ?)");
+             PreparedStatement quotaStmt = conn.prepareStatement(
+                "INSERT INTO quotas (quota_number, expiration_date, quota_value, payed_value, payed_at, state, credit_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+
+            int creditId = 0;
+            for (int saleId = 1; saleId <= sales; saleId++) {
+                if (!isCreditSale(saleId)) {
+                    continue;
+                }
+                creditId++;
+                LocalDate createdAt = today.minusDays(random.nextInt(540));
+                double financed = 500_000 + random.nextInt(5_000_000);
+                boolean defaulter = random.nextInt(5) == 0;
+
+                creditStmt.setDouble(1, financed * 0.3);
+                creditStmt.setDouble(2, financed);
+                creditStmt.setInt(3, QUOTAS_PER_CREDIT);
+                creditStmt.setDate(4, Date.valueOf(createdAt));
+                creditStmt.setString(5, defaulter ? "MORA" : "VIGENTE");
+                creditStmt.setInt(6, saleId);
+                creditStmt.addBatch();
+
+                for (int q = 1; q <= QUOTAS_PER_CREDIT; q++) {
+                    LocalDate expiration = createdAt.plusMonths(q);
+                    boolean expired = expiration.isBefore(today);
+                    boolean paid = expired && !(defaulter && q > QUOTAS_PER_CREDIT / 2);
+                    double value = financed * 1.05 / QUOTAS_PER_CREDIT;
+
+                    quotaStmt.setInt(1, q);
+                    quotaStmt.setDate(2, Date.valueOf(expiration));
+                    quotaStmt.setDouble(3, value);
+                    quotaStmt.setObject(4, paid ? value : null);
+                    quotaStmt.setObject(5, paid ? Date.valueOf(expiration) : null);
+                    quotaStmt.setString(6, paid ? "PAGADA" : expired ? "VENCIDA" : "PENDIENTE");
+                    quotaStmt.setInt(7, creditId);
+                    quotaStmt.addBatch();
+                }
+
+                if (creditId % BATCH_SIZE == 0) {
+                    creditStmt.executeBatch();
+                    quotaStmt.executeBatch();
+                }
+            }
+            creditStmt.executeBatch();
+            quotaStmt.executeBatch();
+        }
+    }
+
+    private static void insertAccessLog(Connection conn, int entries, Random random) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO access_binnacle (entry_date_time, departure_date_time, ip, user_id) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= entries; i++) {
+                LocalDateTime entry = now.minusMinutes(random.nextInt(525_600));
+                stmt.setTimestamp(1, Timestamp.valueOf(entry));
+                stmt.setTimestamp(2, Timestamp.valueOf(entry.plusMinutes(5 + random.nextInt(480))));
+                stmt.setString(3, "192.168.0." + (1 + random.nextInt(254)));
+                stmt.setInt(4, 1 + random.nextInt(USERS));
+                stmt.addBatch();
+                flushEvery(stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void flushEvery(PreparedStatement stmt, int count) throws SQLException {
+        if (count % BATCH_SIZE == 0) {
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.tienda.bench;
+
+import com.tienda.util.DatabaseConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de obtener una conexión del pool frente a abrir una nueva, y de
+ * preparar una sentencia que ya está en la caché del pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionBenchmark {
+
+    private DatabaseConnection dbConnection;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.seed(0);
+        dbConnection = DatabaseConnection.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(dbConnection.getPoolStats());
+        dbConnection.shutdown();
+    }
+
+    @Benchmark
+    public boolean pooledBorrow() throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean pooledBorrowContended() throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public boolean driverManagerConnect() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(
+                BenchmarkDatabase.URL, BenchmarkDatabase.USERNAME, BenchmarkDatabase.PASSWORD)) {
+            return conn.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    public int pooledPreparedQuery() throws SQLException {
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id FROM roles WHERE name = ?")) {
+            stmt.setString(1, "ADMIN");
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
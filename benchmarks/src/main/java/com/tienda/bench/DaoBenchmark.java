@@ -0,0 +1,119 @@
+package com.tienda.bench;
+
+import com.tienda.dao.PageDirection;
+import com.tienda.dao.ProductDAO;
+import com.tienda.dao.PurchaseDAO;
+import com.tienda.dao.ReportDAO;
+import com.tienda.model.Product;
+import com.tienda.model.Purchase;
+import com.tienda.model.dtos.DefaulterClientDTO;
+import com.tienda.model.dtos.SaleFilterDTO;
+import com.tienda.model.dtos.SalesSummaryDTO;
+import com.tienda.util.DatabaseConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rutas de consulta y mapeo más usadas por las pantallas.
+ * El volumen se cambia con -p sales=N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({"1000", "10000"})
+    public int sales;
+
+    private ProductDAO productDAO;
+    private PurchaseDAO purchaseDAO;
+    private ReportDAO reportDAO;
+
+    private String[] codes;
+    private int nextCode;
+    private SaleFilterDTO lastMonth;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.seed(sales);
+
+        productDAO = new ProductDAO();
+        purchaseDAO = new PurchaseDAO();
+        reportDAO = new ReportDAO();
+
+        int products = BenchmarkDatabase.productCount(sales);
+        codes = new String[products];
+        for (int i = 0; i < products; i++) {
+            codes[i] = BenchmarkDatabase.productCode(i + 1);
+        }
+
+        lastMonth = new SaleFilterDTO();
+        lastMonth.setStartDate(LocalDate.now().minusMonths(1));
+        lastMonth.setEndDate(LocalDate.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.getInstance().shutdown();
+    }
+
+    @Benchmark
+    public Product productFindByCode() {
+        String code = codes[nextCode];
+        nextCode = (nextCode + 1) % codes.length;
+        return productDAO.findByCode(code);
+    }
+
+    /**
+     * Mapeo de todo el catálogo: mide sobre todo el costo por fila de mapResultSetToProduct
+     */
+    @Benchmark
+    public List<Product> productFindAllMapping() {
+        return productDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Purchase> purchaseFindWithFiltersLastMonth() {
+        return purchaseDAO.findWithFilters(
+                lastMonth.getStartDate(), lastMonth.getEndDate(), "TODOS", "", "", "", null, null);
+    }
+
+    @Benchmark
+    public List<Purchase> purchaseFindWithFiltersAll() {
+        return purchaseDAO.findWithFilters(null, null, "TODOS", "", "", "", null, null);
+    }
+
+    @Benchmark
+    public SalesSummaryDTO purchaseSummarizeAll() {
+        return purchaseDAO.summarize(new SaleFilterDTO());
+    }
+
+    @Benchmark
+    public List<Purchase> purchaseFindFirstPage() {
+        return purchaseDAO.findPage(lastMonth, PageDirection.FIRST, null, 20);
+    }
+
+    @Benchmark
+    public List<DefaulterClientDTO> reportDefaulterClients() {
+        return reportDAO.getDefaulterClients();
+    }
+}
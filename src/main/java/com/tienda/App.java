@@ -3,7 +3,12 @@ package com.tienda;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
-import com.tienda.dao.AccessBinnacleDAO;
+import com.tienda.dao.ProductCategoryDAO;
+import com.tienda.dao.ProductDAO;
+import com.tienda.dao.RoleDAO;
+import com.tienda.service.OverdueQuotaJob;
+import com.tienda.util.AccessLogWriter;
+import com.tienda.util.DatabaseConnection;
 import com.tienda.util.DatabaseInitializer;
 import com.tienda.util.SceneManager;
 import com.tienda.util.SessionManager;
@@ -11,19 +16,48 @@ import com.tienda.util.SessionManager;
 public class App extends Application {
     
     private static DatabaseInitializer dbInitializer = new DatabaseInitializer();
+    private static OverdueQuotaJob overdueQuotaJob;
+    private static AccessLogWriter accessLogWriter;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
         SceneManager.setStage(primaryStage);
         SceneManager.switchScene("/views/Login.fxml", "Login");
     }
+
+    @Override
+    public void stop() {
+        if (overdueQuotaJob != null) {
+            overdueQuotaJob.stop();
+        }
+        // La salida del último usuario ya está en la cola; se escribe antes de cerrar el pool
+        if (accessLogWriter != null) {
+            accessLogWriter.shutdown();
+        }
+        DatabaseConnection.getInstance().shutdown();
+    }
     
     public static void main(String[] args) {
 
-        AccessBinnacleDAO abDao = new AccessBinnacleDAO();
-        SessionManager.init(abDao);
-
         dbInitializer.initializeDatabase();
+
+        // Bitácora de acceso asíncrona; escribe lo pendiente de la ejecución anterior
+        accessLogWriter = new AccessLogWriter();
+        accessLogWriter.start();
+        SessionManager.init(accessLogWriter);
+
+        // Catálogos de referencia en segundo plano, mientras se muestra el login
+        Thread.ofVirtual().name("precarga-catalogos").start(App::warmUpCaches);
+
+        // Cuotas vencidas y créditos en mora, por bloques y en segundo plano
+        overdueQuotaJob = new OverdueQuotaJob();
+        overdueQuotaJob.start();
         launch(args);
     }
+
+    private static void warmUpCaches() {
+        new RoleDAO().findAll();
+        new ProductCategoryDAO().findAll();
+        new ProductDAO().findAll();
+    }
 }
\ No newline at end of file
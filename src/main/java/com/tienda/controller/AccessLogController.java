@@ -1,9 +1,14 @@
 package com.tienda.controller;
 
 import com.tienda.dao.AccessBinnacleDAO;
+import com.tienda.dao.PageDirection;
 import com.tienda.dao.UserDAO;
 import com.tienda.model.AccessBinnacle;
 import com.tienda.model.User;
+import com.tienda.model.dtos.AccessLogFilterDTO;
+import com.tienda.model.dtos.AccessLogSummaryDTO;
+import com.tienda.util.AsyncLoader;
+import com.tienda.util.ViewLifecycle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,10 +18,12 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import javafx.util.StringConverter;
 
-public class AccessLogController {
+public class AccessLogController implements ViewLifecycle {
+    private static final int PAGE_SIZE = 50;
 
     @FXML
     private ComboBox<User> cmbUser;
@@ -49,19 +56,47 @@ public class AccessLogController {
     @FXML
     private Label activeSessionsLabel;
 
+    @FXML
+    private Button btnFirstPage;
+    @FXML
+    private Button btnPrevPage;
+    @FXML
+    private Label lblPageInfo;
+    @FXML
+    private Button btnNextPage;
+    @FXML
+    private Button btnLastPage;
+
     private AccessBinnacleDAO accessBinnacleDAO;
     private UserDAO userDAO;
     private ObservableList<AccessLogEntry> logEntries;
+    private AsyncLoader userLoader;
+    private AsyncLoader logLoader;
+
+    // Filas de la página actual, cursores para NEXT/PREVIOUS
+    private List<AccessBinnacle> currentPageEntries = new ArrayList<>();
+    private AccessLogFilterDTO currentFilter;
+    private int currentPage = 0;
+    private int totalPages = 1;
+    private int totalCount = 0;
 
     public void initialize() {
         accessBinnacleDAO = new AccessBinnacleDAO();
         userDAO = new UserDAO();
         logEntries = FXCollections.observableArrayList();
 
+        userLoader = new AsyncLoader();
+        userLoader.setOnError(e -> statusLabel.setText("Error cargando usuarios"));
+        logLoader = new AsyncLoader();
+        logLoader.setOnLoadingChanged(this::setLoading);
+        logLoader.setOnError(e -> {
+            statusLabel.setText("Error cargando bitácora");
+            showAlert("Error", "Error al cargar la bitácora: " + e.getMessage(), Alert.AlertType.ERROR);
+        });
+
         setupTableColumns();
+        setupUserCombo();
         initializeDates();
-        loadUsers();
-        loadAccessLog();
     }
 
     private void setupTableColumns() {
@@ -82,25 +117,22 @@ public class AccessLogController {
         dateTo.setValue(now);
     }
 
+    private void setupUserCombo() {
+        cmbUser.setConverter(new StringConverter<User>() {
+            @Override
+            public String toString(User user) {
+                return user != null ? user.getName() : "Todos los usuarios";
+            }
+
+            @Override
+            public User fromString(String string) {
+                return null;
+            }
+        });
+    }
+
     private void loadUsers() {
-        try {
-            List<User> users = userDAO.findAll();
-            ObservableList<User> userList = FXCollections.observableArrayList(users);
-            cmbUser.setItems(userList);
-            cmbUser.setConverter(new StringConverter<User>() {
-                @Override
-                public String toString(User user) {
-                    return user != null ? user.getName() : "Todos los usuarios";
-                }
-
-                @Override
-                public User fromString(String string) {
-                    return null;
-                }
-            });
-        } catch (Exception e) {
-            statusLabel.setText("Error cargando usuarios");
-        }
+        userLoader.submit(userDAO::findAll, users -> cmbUser.setItems(FXCollections.observableArrayList(users)));
     }
 
     @FXML
@@ -113,77 +145,168 @@ public class AccessLogController {
         loadAccessLog();
     }
 
+    @Override
+    public void onShow() {
+        loadUsers();
+        loadAccessLog();
+    }
+
+    @Override
+    public void onHide() {
+        userLoader.cancel();
+        logLoader.cancel();
+    }
+
+    /**
+     * Resumen y primera página para los filtros de la pantalla. Usuario y
+     * fechas se filtran en la consulta; el total se cuenta una vez por búsqueda.
+     */
     private void loadAccessLog() {
-        try {
-            statusLabel.setText("Cargando bitácora de acceso...");
+        AccessLogFilterDTO filter = new AccessLogFilterDTO();
+        User selectedUser = cmbUser.getValue();
+        filter.setUserId(selectedUser != null ? selectedUser.getId() : null);
+        filter.setStartDate(dateFrom.getValue());
+        filter.setEndDate(dateTo.getValue());
+        currentFilter = filter;
+
+        currentPage = 0;
+        logLoader.submit(
+                () -> new SearchResult(
+                        accessBinnacleDAO.summarize(filter),
+                        accessBinnacleDAO.findPage(filter, PageDirection.FIRST, null, PAGE_SIZE)),
+                result -> {
+                    totalCount = result.summary().getTotalEntries();
+                    totalPages = Math.max(1, (int) Math.ceil((double) totalCount / PAGE_SIZE));
+
+                    // Actualizar contadores
+                    recordCountLabel.setText("Registros: " + totalCount);
+                    activeSessionsLabel.setText("Sesiones activas: " + result.summary().getActiveSessions());
+
+                    showPage(result.page());
+                    statusLabel.setText("Bitácora cargada correctamente");
+                });
+    }
 
-            // Limpiar lista
-            logEntries.clear();
+    /**
+     * NEXT/PREVIOUS buscan a partir de la última o la primera entrada de la
+     * página actual
+     */
+    private void loadPage(PageDirection direction) {
+        AccessBinnacle cursor = null;
+        if (direction == PageDirection.NEXT && !currentPageEntries.isEmpty()) {
+            cursor = currentPageEntries.get(currentPageEntries.size() - 1);
+        } else if (direction == PageDirection.PREVIOUS && !currentPageEntries.isEmpty()) {
+            cursor = currentPageEntries.get(0);
+        }
 
-            List<AccessBinnacle> binnacles = accessBinnacleDAO.findAll();
+        // La última página solo tiene el residuo, para que quede alineada con las demás
+        int size = PAGE_SIZE;
+        if (direction == PageDirection.LAST && totalCount % PAGE_SIZE != 0) {
+            size = totalCount % PAGE_SIZE;
+        }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+        AccessLogFilterDTO filter = currentFilter;
+        AccessBinnacle pageCursor = cursor;
+        int pageRows = size;
+        logLoader.submit(() -> accessBinnacleDAO.findPage(filter, direction, pageCursor, pageRows), this::showPage);
+    }
 
-            for (AccessBinnacle ab : binnacles) {
+    private void showPage(List<AccessBinnacle> page) {
+        currentPageEntries = page;
+        logEntries.setAll(buildEntries(page));
+        updatePaginationButtons();
+    }
 
-                AccessLogEntry entry = new AccessLogEntry();
-                entry.setId(ab.getId());
-                entry.setUserName(ab.getUser() != null ? ab.getUser().getName() : "Desconocido");
+    private List<AccessLogEntry> buildEntries(List<AccessBinnacle> binnacles) {
+        List<AccessLogEntry> entries = new ArrayList<>();
 
-                if (ab.getEntryDateTime() != null) {
-                    entry.setEntryDateTime(ab.getEntryDateTime().format(formatter));
-                } else {
-                    entry.setEntryDateTime("N/A");
-                }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
-                if (ab.getDepartureDateTime() != null) {
-                    entry.setDepartureDateTime(ab.getDepartureDateTime().format(formatter));
+        for (AccessBinnacle ab : binnacles) {
 
-                    Duration duration = Duration.between(ab.getEntryDateTime(), ab.getDepartureDateTime());
-                    long hours = duration.toHours();
-                    long minutes = duration.toMinutes() % 60;
-                    entry.setSessionDuration(String.format("%02d:%02d", hours, minutes));
-                    entry.setStatus("Cerrado");
-                } else {
-                    entry.setDepartureDateTime("Activa");
-                    entry.setSessionDuration("En curso");
-                    entry.setStatus("Activo");
-                }
+            AccessLogEntry entry = new AccessLogEntry();
+            entry.setId(ab.getId());
+            entry.setUserName(ab.getUser() != null && ab.getUser().getName() != null
+                    ? ab.getUser().getName() : "Desconocido");
 
-                entry.setIpAddress(ab.getIp() != null ? ab.getIp() : "N/A");
+            if (ab.getEntryDateTime() != null) {
+                entry.setEntryDateTime(ab.getEntryDateTime().format(formatter));
+            } else {
+                entry.setEntryDateTime("N/A");
+            }
 
-                logEntries.add(entry);
+            if (ab.getDepartureDateTime() != null) {
+                entry.setDepartureDateTime(ab.getDepartureDateTime().format(formatter));
+
+                Duration duration = Duration.between(ab.getEntryDateTime(), ab.getDepartureDateTime());
+                long hours = duration.toHours();
+                long minutes = duration.toMinutes() % 60;
+                entry.setSessionDuration(String.format("%02d:%02d", hours, minutes));
+                entry.setStatus("Cerrado");
+            } else {
+                entry.setDepartureDateTime("Activa");
+                entry.setSessionDuration("En curso");
+                entry.setStatus("Activo");
             }
 
-            // Aplicar filtros si están seleccionados
-            applyFilters();
+            entry.setIpAddress(ab.getIp() != null ? ab.getIp() : "N/A");
 
-            // Actualizar contadores
-            recordCountLabel.setText("Registros: " + logEntries.size());
+            entries.add(entry);
+        }
+        return entries;
+    }
 
-            long activeSessions = logEntries.stream()
-                    .filter(entry -> "Activo".equals(entry.getStatus()))
-                    .count();
-            activeSessionsLabel.setText("Sesiones activas: " + activeSessions);
+    /**
+     * Mientras se consulta una página se bloquea la navegación: NEXT/PREVIOUS
+     * dependen de las filas que están en pantalla.
+     */
+    private void setLoading(boolean loading) {
+        if (loading) {
+            statusLabel.setText("Cargando bitácora de acceso...");
+            btnFirstPage.setDisable(true);
+            btnPrevPage.setDisable(true);
+            btnNextPage.setDisable(true);
+            btnLastPage.setDisable(true);
+        } else {
+            updatePaginationButtons();
+        }
+    }
 
-            statusLabel.setText("Bitácora cargada correctamente");
+    private void updatePaginationButtons() {
+        lblPageInfo.setText("Página " + (currentPage + 1) + " de " + totalPages);
 
-        } catch (Exception e) {
-            statusLabel.setText("Error cargando bitácora");
-            showAlert("Error", "Error al cargar la bitácora: " + e.getMessage(), Alert.AlertType.ERROR);
-            e.printStackTrace();
-        }
+        btnFirstPage.setDisable(currentPage == 0);
+        btnPrevPage.setDisable(currentPage == 0);
+        btnNextPage.setDisable(currentPage >= totalPages - 1);
+        btnLastPage.setDisable(currentPage >= totalPages - 1);
     }
 
-    private void applyFilters() {
-        // Implementar lógica de filtros por usuario y fechas
-        User selectedUser = cmbUser.getValue();
+    @FXML
+    private void handleFirstPage() {
+        currentPage = 0;
+        loadPage(PageDirection.FIRST);
+    }
 
-        if (selectedUser != null) {
-            logEntries.removeIf(entry -> !entry.getUserName().equals(selectedUser.getName()));
+    @FXML
+    private void handlePrevPage() {
+        if (currentPage > 0) {
+            currentPage--;
+            loadPage(currentPage == 0 ? PageDirection.FIRST : PageDirection.PREVIOUS);
         }
+    }
 
-        // Filtros por fecha se aplicarían aquí
+    @FXML
+    private void handleNextPage() {
+        if (currentPage < totalPages - 1) {
+            currentPage++;
+            loadPage(PageDirection.NEXT);
+        }
+    }
+
+    @FXML
+    private void handleLastPage() {
+        currentPage = totalPages - 1;
+        loadPage(currentPage == 0 ? PageDirection.FIRST : PageDirection.LAST);
     }
 
     @FXML
@@ -199,6 +322,9 @@ public class AccessLogController {
         alert.showAndWait();
     }
 
+    private record SearchResult(AccessLogSummaryDTO summary, List<AccessBinnacle> page) {
+    }
+
     // Clase auxiliar para entradas de bitácora
     public static class AccessLogEntry {
         private int id;
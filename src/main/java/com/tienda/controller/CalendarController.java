@@ -4,19 +4,14 @@ import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.stage.Stage;
 import javafx.util.Duration;
 
-import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -26,7 +21,10 @@ import java.time.format.TextStyle;
 import java.time.temporal.WeekFields;
 import java.util.*;
 
-public class CalendarController implements Initializable {
+import com.tienda.util.SceneManager;
+import com.tienda.util.ViewLifecycle;
+
+public class CalendarController implements Initializable, ViewLifecycle {
 
     @FXML private Label lblClock;
     @FXML private Label lblMonthYear;
@@ -64,34 +62,19 @@ public class CalendarController implements Initializable {
 
     @FXML
     private void handleBack() {
-        try {
-            // Detener el reloj antes de salir
-            stopClock();
-            
-            // Obtener el Stage actual
-            Stage currentStage = (Stage) btnBack.getScene().getWindow();
-            
-            // Cargar la vista del Home
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/MainWindow.fxml"));
-            Parent root = loader.load();
-            
-            
-            // Cambiar la escena
-            Scene scene = new Scene(root);
-            currentStage.setScene(scene);
-            currentStage.setTitle("Home");
-            
-        } catch (IOException e) {
-            System.err.println("Error al volver al Home: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Mostrar alerta de error
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("No se pudo volver al Home");
-            alert.setContentText("Detalle: " + e.getMessage());
-            alert.showAndWait();
-        }
+        // El reloj se detiene en onHide()
+        SceneManager.switchScene("/views/MainWindow.fxml", "Home");
+    }
+
+    @Override
+    public void onShow() {
+        clockTimeline.play();
+        renderCalendar();
+    }
+
+    @Override
+    public void onHide() {
+        stopClock();
     }
 
     /**
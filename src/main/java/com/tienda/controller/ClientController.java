@@ -2,16 +2,17 @@ package com.tienda.controller;
 
 import com.tienda.dao.ClientDAO;
 import com.tienda.model.Client;
+import com.tienda.util.AsyncLoader;
+import com.tienda.util.ViewLifecycle;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.List;
 import java.util.Optional;
 
-public class ClientController {
+public class ClientController implements ViewLifecycle {
     
     @FXML private ComboBox<String> cmbDocumentType;
     @FXML private TextField txtDocumentNumber;
@@ -38,14 +39,24 @@ public class ClientController {
     private ObservableList<Client> clientList;
     private Client selectedClient;
     private boolean isEditing = false;
+    private AsyncLoader clientLoader;
     
     public void initialize() {
         clientDAO = new ClientDAO();
         clientList = FXCollections.observableArrayList();
         
+        clientLoader = new AsyncLoader();
+        clientLoader.setOnLoadingChanged(loading -> {
+            btnNew.setDisable(loading);
+            if (loading) {
+                statusLabel.setText("Cargando clientes...");
+            }
+        });
+        clientLoader.setOnError(e ->
+            showAlert("Error", "Error al cargar clientes: " + e.getMessage(), Alert.AlertType.ERROR));
+        
         setupTableColumns();
         setupTableSelection();
-        loadClients();
         clearForm();
         
         cmbDocumentType.setValue("CC");
@@ -76,16 +87,23 @@ public class ClientController {
         );
     }
     
+    @Override
+    public void onShow() {
+        loadClients();
+    }
+
+    @Override
+    public void onHide() {
+        clientLoader.cancel();
+    }
+
     private void loadClients() {
-        try {
-            List<Client> clients = clientDAO.findAll();
+        clientLoader.submit(clientDAO::findAll, clients -> {
             clientList.clear();
             clientList.addAll(clients);
             tableClients.setItems(clientList);
             statusLabel.setText("Clientes cargados: " + clients.size());
-        } catch (Exception e) {
-            showAlert("Error", "Error al cargar clientes: " + e.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
     }
     
     @FXML
@@ -1,23 +1,28 @@
 package com.tienda.controller;
 
+import com.tienda.controller.auxiliar.PurchaseItem;
 import com.tienda.dao.ClientDAO;
 import com.tienda.dao.ProductDAO;
-import com.tienda.dao.PurchaseDAO;
-import com.tienda.dao.PurchaseDetailsDAO;
 import com.tienda.model.Client;
 import com.tienda.model.Product;
 import com.tienda.model.Purchase;
-import com.tienda.model.PurchaseDetails;
+import com.tienda.service.SaleService;
+import com.tienda.util.AsyncLoader;
 import com.tienda.util.InvoiceGenerator;
 import com.tienda.util.SessionManager;
+import com.tienda.util.ViewLifecycle;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.io.File;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
-public class CreatePurchaseController {
+public class CreatePurchaseController implements ViewLifecycle {
 
     @FXML private ComboBox<Client> clientCombo;
     @FXML private ComboBox<Product> productCombo;
@@ -28,18 +33,79 @@ public class CreatePurchaseController {
     @FXML private Label ivaLabel;
     @FXML private Label totalLabel;
 
+    @FXML private TableView<PurchaseItem> cartTable;
+    @FXML private TableColumn<PurchaseItem, String> colCartProduct;
+    @FXML private TableColumn<PurchaseItem, Number> colCartQuantity;
+    @FXML private TableColumn<PurchaseItem, Number> colCartSubtotal;
+
+    @FXML private Button btnSaveSale;
+
+    private final ObservableList<PurchaseItem> cart = FXCollections.observableArrayList();
+    private final SaleService saleService = new SaleService();
+    private final ClientDAO clientDAO = new ClientDAO();
+    private final ProductDAO productDAO = new ProductDAO();
     private Purchase lastSavedPurchase;
 
+    // Clientes y productos se consultan, y la venta se guarda, fuera del hilo de JavaFX
+    private AsyncLoader catalogLoader;
+    private AsyncLoader saveLoader;
+
     @FXML
     public void initialize() {
-        clientCombo.getItems().addAll(new ClientDAO().findAll());
-        productCombo.getItems().addAll(new ProductDAO().findAll());
+        catalogLoader = new AsyncLoader();
+        catalogLoader.setOnError(e -> showError("No se pudieron cargar clientes y productos: " + e.getMessage()));
+
+        saveLoader = new AsyncLoader();
+        // Un segundo clic no debe registrar la venta dos veces
+        saveLoader.setOnLoadingChanged(saving -> btnSaveSale.setDisable(saving));
+        saveLoader.setOnError(e -> {
+            e.printStackTrace();
+            showError("No se pudo guardar la venta: " + e.getMessage());
+        });
+
         saleTypeCombo.getItems().addAll("COUNT", "CREDIT");
 
+        colCartProduct.setCellValueFactory(cd -> cd.getValue().getProductName());
+        colCartQuantity.setCellValueFactory(cd -> cd.getValue().getQuantity());
+        colCartSubtotal.setCellValueFactory(cd -> cd.getValue().getSubtotal());
+        cartTable.setItems(cart);
+
         amountField.textProperty().addListener((obs, o, n) -> updateTotals());
         productCombo.valueProperty().addListener((obs, o, n) -> updateTotals());
     }
 
+    /**
+     * Cada vez que se muestra se cargan clientes y productos, para ver los
+     * clientes nuevos y el stock actual. La vista queda en caché y el carrito
+     * se conserva entre visitas.
+     */
+    @Override
+    public void onShow() {
+        loadCatalog();
+    }
+
+    @Override
+    public void onHide() {
+        // Una venta en curso no se cancela: su confirmación llega aunque se salga de la vista
+        catalogLoader.cancel();
+    }
+
+    private void loadCatalog() {
+        catalogLoader.submit(
+            () -> new Catalog(clientDAO.findAll(), productDAO.findAll()),
+            catalog -> {
+                Client client = clientCombo.getValue();
+                Product product = productCombo.getValue();
+                clientCombo.getItems().setAll(catalog.clients());
+                productCombo.getItems().setAll(catalog.products());
+                // Conservar la selección si el registro sigue existiendo
+                clientCombo.setValue(client == null ? null : catalog.clients().stream()
+                        .filter(c -> c.getId() == client.getId()).findFirst().orElse(null));
+                productCombo.setValue(product == null ? null : catalog.products().stream()
+                        .filter(p -> p.getId() == product.getId()).findFirst().orElse(null));
+            });
+    }
+
     private double getIVA(String category) {
         return switch (category.toLowerCase()) {
             case "audio" -> 0.16;
@@ -60,90 +126,139 @@ public class CreatePurchaseController {
         };
     }
 
-    private void updateTotals() {
-        try {
-            Product product = productCombo.getValue();
-            if (product == null) return;
-
-            int amount = Integer.parseInt(amountField.getText());
+    /**
+     * Arma una línea de carrito con el producto y la cantidad seleccionados,
+     * o null si la selección no es válida
+     */
+    private PurchaseItem buildPendingItem() {
+        Product product = productCombo.getValue();
+        if (product == null) return null;
 
-            String category = product.getCategory().getName();
-            double ivaRate = getIVA(category);
-            double utilidadRate = getUtilidad(category);
+        int amount;
+        try {
+            amount = Integer.parseInt(amountField.getText().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (amount <= 0) return null;
+
+        String category = product.getCategory().getName();
+        double ivaRate = getIVA(category);
+        double utilidadRate = getUtilidad(category);
+
+        double acquisition = product.getAcquisitionValue();
+        double utilidad = acquisition * utilidadRate;
+        double precioVenta = acquisition + utilidad;
+
+        PurchaseItem item = new PurchaseItem();
+        item.getProductId().set(product.getId());
+        item.getProductCode().set(product.getCode());
+        item.getProductName().set(product.getName());
+        item.getCategory().set(category);
+        item.getQuantity().set(amount);
+        item.getUnitCost().set(precioVenta);
+        item.getIvaRate().set(ivaRate);
+        item.calculateTotals();
+        return item;
+    }
 
-            double acquisition = product.getAcquisitionValue();
-            double utilidad = acquisition * utilidadRate;
-            double precioVenta = acquisition + utilidad;
+    /**
+     * La venta incluye las líneas del carrito más la selección actual, si es válida
+     */
+    private List<PurchaseItem> collectItems() {
+        List<PurchaseItem> items = new ArrayList<>(cart);
+        PurchaseItem pending = buildPendingItem();
+        if (pending != null) {
+            items.add(pending);
+        }
+        return items;
+    }
 
-            double subtotal = precioVenta * amount;
-            double iva = subtotal * ivaRate;
-            double total = subtotal + iva;
+    private void updateTotals() {
+        double subtotal = 0;
+        double iva = 0;
+        for (PurchaseItem item : collectItems()) {
+            subtotal += item.getSubtotal().get();
+            iva += item.getIvaAmount().get();
+        }
 
-            subtotalLabel.setText("$" + subtotal);
-            ivaLabel.setText("$" + iva);
-            totalLabel.setText("$" + total);
+        subtotalLabel.setText("$" + subtotal);
+        ivaLabel.setText("$" + iva);
+        totalLabel.setText("$" + (subtotal + iva));
+    }
 
-        } catch (Exception e) {
-            subtotalLabel.setText("$0");
-            ivaLabel.setText("$0");
-            totalLabel.setText("$0");
+    @FXML
+    public void handleAddToCart() {
+        PurchaseItem item = buildPendingItem();
+        if (item == null) {
+            showError("Seleccione un producto y una cantidad válida.");
+            return;
         }
+        cart.add(item);
+        productCombo.setValue(null);
+        amountField.clear();
+        updateTotals();
     }
 
     @FXML
     public void handleSaveSale() {
-        try {
-            Client client = clientCombo.getValue();
-            Product product = productCombo.getValue();
-            int amount = Integer.parseInt(amountField.getText());
-            String saleType = saleTypeCombo.getValue();
-
-            String category = product.getCategory().getName();
-            double ivaRate = getIVA(category);
-            double utilidadRate = getUtilidad(category);
-
-            double acquisition = product.getAcquisitionValue();
-            double utilidad = acquisition * utilidadRate;
-            double precioVenta = acquisition + utilidad;
-
-            double subtotal = precioVenta * amount;
-            double iva = subtotal * ivaRate;
-            double total = subtotal + iva;
-
-            Purchase purchase = new Purchase();
-            purchase.setDate(LocalDate.now());
-            purchase.setSaleType(saleType);
-            purchase.setSubtotal(subtotal);
-            purchase.setIvaTotal(iva);
-            purchase.setTotal(total);
-            purchase.setClient(client);
-            purchase.setUser(SessionManager.getCurrentUser());
-
-            PurchaseDAO purchaseDAO = new PurchaseDAO();
-            boolean saved = purchaseDAO.save(purchase);
-
-            if (!saved) {
-                showError("No se pudo guardar la venta.");
-                return;
-            }
-
-            PurchaseDetails details = new PurchaseDetails();
-            details.setSale(purchase);
-            details.setProduct(product);
-            details.setAmount(amount);
-            details.setUnitPrice(precioVenta);
-            details.setIvaApplied(iva);
-            details.setSubtotal(subtotal);
+        Client client = clientCombo.getValue();
+        String saleType = saleTypeCombo.getValue();
+        List<PurchaseItem> items = collectItems();
 
-            new PurchaseDetailsDAO().save(details);
-
-            lastSavedPurchase = purchase;
+        if (client == null || saleType == null) {
+            showError("Seleccione el cliente y el tipo de venta.");
+            return;
+        }
+        if (items.isEmpty()) {
+            showError("Agregue al menos un producto a la venta.");
+            return;
+        }
 
-            showInfo("Venta registrada con éxito. ID: " + purchase.getId());
+        Purchase purchase = new Purchase();
+        purchase.setDate(LocalDate.now());
+        purchase.setSaleType(saleType);
+        purchase.setClient(client);
+        purchase.setUser(SessionManager.getCurrentUser());
+
+        // La transacción (crédito y resumen diario incluidos) corre en segundo plano;
+        // al terminar solo se vuelven a leer los productos vendidos
+        saveLoader.submit(
+            () -> {
+                List<Product> sold = new ArrayList<>();
+                for (int productId : saleService.commitSale(purchase, items)) {
+                    Product product = productDAO.findById(productId);
+                    if (product != null) {
+                        sold.add(product);
+                    }
+                }
+                return sold;
+            },
+            sold -> {
+                lastSavedPurchase = purchase;
+
+                cart.clear();
+                productCombo.setValue(null);
+                amountField.clear();
+                replaceProducts(sold);
+                updateTotals();
+
+                showInfo("Venta registrada con éxito. ID: " + purchase.getId());
+            });
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error al guardar la venta.");
+    /**
+     * Reemplaza en el combo los productos cuyo stock cambió
+     */
+    private void replaceProducts(List<Product> updated) {
+        ObservableList<Product> products = productCombo.getItems();
+        for (Product product : updated) {
+            for (int i = 0; i < products.size(); i++) {
+                if (products.get(i).getId() == product.getId()) {
+                    products.set(i, product);
+                    break;
+                }
+            }
         }
     }
 
@@ -165,6 +280,9 @@ public class CreatePurchaseController {
         }
     }
 
+    private record Catalog(List<Client> clients, List<Product> products) {
+    }
+
     private void showError(String msg) {
         Alert a = new Alert(Alert.AlertType.ERROR);
         a.setContentText(msg);
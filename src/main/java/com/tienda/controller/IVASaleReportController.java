@@ -1,7 +1,9 @@
 package com.tienda.controller;
 
+import com.tienda.model.dtos.IVAReportTotalsDTO;
 import com.tienda.model.dtos.SaleReportDTO;
 import com.tienda.dao.ReportDAO;
+import com.tienda.util.AsyncLoader;
 import com.tienda.util.IVAReportGenerator;
 
 import javafx.fxml.FXML;
@@ -34,7 +36,12 @@ public class IVASaleReportController {
     @FXML private Label lblIva;
     @FXML private Label lblTotal;
 
+    // La tabla es una vista previa; el periodo completo solo se recorre al generar el PDF
+    private static final int PREVIEW_ROWS = 200;
+
     private final ReportDAO reportDAO = new ReportDAO();
+    private final AsyncLoader reportLoader = new AsyncLoader();
+    private final AsyncLoader pdfLoader = new AsyncLoader();
 
     @FXML
     public void initialize() {
@@ -51,45 +58,47 @@ public class IVASaleReportController {
 
         btnSearch.setOnAction(e -> loadReportData());
         btnPdf.setOnAction(e -> generatePdf());
+
+        reportLoader.setOnLoadingChanged(loading -> btnSearch.setDisable(loading));
+        reportLoader.setOnError(ex -> showAlert("Error al cargar datos: " + ex.getMessage()));
+
+        pdfLoader.setOnLoadingChanged(loading -> btnPdf.setDisable(loading));
+        pdfLoader.setOnError(ex -> {
+            ex.printStackTrace();
+            showAlert("Error al generar PDF: " + ex.getMessage());
+        });
     }
 
     // CARGAR DATOS
     private void loadReportData() {
-        try {
-            Date from = (fromDatePicker.getValue() != null) ? Date.valueOf(fromDatePicker.getValue()) : null;
-            Date to = (toDatePicker.getValue() != null) ? Date.valueOf(toDatePicker.getValue()) : null;
-
-            List<SaleReportDTO> list = reportDAO.getSalesForIVAReport(from, to);
-
-            reportTable.getItems().setAll(list);
-            updateTotals(list);
+        Date from = (fromDatePicker.getValue() != null) ? Date.valueOf(fromDatePicker.getValue()) : null;
+        Date to = (toDatePicker.getValue() != null) ? Date.valueOf(toDatePicker.getValue()) : null;
 
-        } catch (Exception ex) {
-            showAlert("Error al cargar datos: " + ex.getMessage());
+        if (from == null || to == null) {
+            showAlert("You have to select a initial date and final date");
+            return;
         }
-    }
 
-    // CALCULAR TOTALES
-    private void updateTotals(List<SaleReportDTO> list) {
-        double subtotal = list.stream().mapToDouble(SaleReportDTO::getSubtotal).sum();
-        double iva = list.stream().mapToDouble(SaleReportDTO::getIvaTotal).sum();
-        double total = list.stream().mapToDouble(SaleReportDTO::getTotal).sum();
+        // Primeras filas y totales del periodo (del resumen diario), fuera del hilo de JavaFX
+        reportLoader.submit(
+            () -> new ReportPreview(
+                reportDAO.getIVAReportTotals(from, to),
+                reportDAO.getSalesForIVAReport(from, to, PREVIEW_ROWS)),
+            preview -> {
+                reportTable.getItems().setAll(preview.rows());
+                updateTotals(preview.totals());
+            });
+    }
 
-        lblSubtotal.setText(String.format("$ %.2f", subtotal));
-        lblIva.setText(String.format("$ %.2f", iva));
-        lblTotal.setText(String.format("$ %.2f", total));
+    // MOSTRAR TOTALES
+    private void updateTotals(IVAReportTotalsDTO totals) {
+        lblSubtotal.setText(String.format("$ %.2f", totals.getSubtotal()));
+        lblIva.setText(String.format("$ %.2f", totals.getIvaTotal()));
+        lblTotal.setText(String.format("$ %.2f", totals.getTotal()));
     }
 
     // GENERAR PDF
     private void generatePdf() {
-    try {
-        List<SaleReportDTO> list = reportTable.getItems();
-
-        if (list.isEmpty()) {
-            showAlert("There are not data to generate PDF");
-            return;
-        }
-
         // Obtener fechas del selector
         Date startDate = (fromDatePicker.getValue() != null)
                 ? Date.valueOf(fromDatePicker.getValue())
@@ -104,22 +113,23 @@ public class IVASaleReportController {
             return;
         }
 
-        // Calcular IVA total
-        double totalIVA = list.stream()
-                .mapToDouble(SaleReportDTO::getIvaTotal)
-                .sum();
-
-        // Llamar correctamente al método del generador
-        IVAReportGenerator.generateReport(list, totalIVA, startDate, endDate);
-
-        showAlert("Reporte PDF generado con éxito.");
-
-    } catch (Exception ex) {
-        ex.printStackTrace();
-        showAlert("Error al generar PDF: " + ex.getMessage());
+        // El PDF se arma leyendo las ventas por bloques, no desde la vista previa en pantalla.
+        // Sin ventas en el periodo no se genera archivo (resultado null)
+        pdfLoader.submit(() -> {
+            IVAReportTotalsDTO totals = reportDAO.getIVAReportTotals(startDate, endDate);
+            if (totals.getSaleCount() == 0) {
+                return null;
+            }
+            return IVAReportGenerator.generateReport(
+                    row -> reportDAO.streamSalesForIVAReport(startDate, endDate, row),
+                    totals.getIvaTotal(), startDate, endDate);
+        }, file -> showAlert(file == null
+                ? "There are not data to generate PDF"
+                : "Reporte PDF generado con éxito."));
     }
-}
 
+    private record ReportPreview(IVAReportTotalsDTO totals, List<SaleReportDTO> rows) {
+    }
 
     private void showAlert(String msg) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
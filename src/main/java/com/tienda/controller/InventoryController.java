@@ -2,27 +2,24 @@ package com.tienda.controller;
 
 import com.tienda.dao.ProductDAO;
 import com.tienda.model.dtos.InventoryItemDTO;
+import com.tienda.util.AsyncLoader;
+import com.tienda.util.ViewLifecycle;
+import com.tienda.util.SceneManager;
 
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 
-import java.io.IOException;
 import java.net.URL;
 import java.text.NumberFormat;
-import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
-public class InventoryController implements Initializable {
+public class InventoryController implements Initializable, ViewLifecycle {
 
     @FXML private TableView<InventoryItemDTO> tableInventory;
 
@@ -41,6 +38,7 @@ public class InventoryController implements Initializable {
     private ProductDAO productDAO;
     private ObservableList<InventoryItemDTO> inventoryList;
     private NumberFormat currencyFormat;
+    private AsyncLoader inventoryLoader;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -49,6 +47,12 @@ public class InventoryController implements Initializable {
         inventoryList = FXCollections.observableArrayList();
         currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "CO"));
 
+        inventoryLoader = new AsyncLoader();
+        inventoryLoader.setOnLoadingChanged(loading ->
+                tableInventory.setPlaceholder(new Label(loading ? "Cargando inventario..." : "Sin productos")));
+        inventoryLoader.setOnError(e ->
+                showError("Error", "No se pudo cargar el inventario.", e.getMessage()));
+
         setupTableColumns();
         loadInventory();
     }
@@ -105,37 +109,28 @@ public class InventoryController implements Initializable {
         colProfit.setStyle("-fx-alignment: CENTER-RIGHT;");
     }
 
-    private void loadInventory() {
-        try {
-            List<InventoryItemDTO> inventory = productDAO.getInventoryByCategory();
+    @Override
+    public void onShow() {
+        loadInventory();
+    }
 
+    @Override
+    public void onHide() {
+        inventoryLoader.cancel();
+    }
+
+    private void loadInventory() {
+        inventoryLoader.submit(productDAO::getInventoryByCategory, inventory -> {
             inventoryList.clear();
             inventoryList.addAll(inventory);
 
             tableInventory.setItems(inventoryList);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error", "No se pudo cargar el inventario.", e.getMessage());
-        }
+        });
     }
 
     @FXML
     private void handleBack() {
-        try {
-            Stage currentStage = (Stage) btnBack.getScene().getWindow();
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/MainWindow.fxml"));
-            Parent root = loader.load();
-            
-            Scene scene = new Scene(root);
-            currentStage.setScene(scene);
-            currentStage.setTitle("Home");
-            
-        } catch (IOException e) {
-            System.err.println("Error al volver al Home: " + e.getMessage());
-            e.printStackTrace();
-            showError("Error", "No se pudo volver al Home", e.getMessage());
-        }
+        SceneManager.switchScene("/views/MainWindow.fxml", "Home");
     }
 
     private void showError(String title, String header, String content) {
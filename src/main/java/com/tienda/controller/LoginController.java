@@ -1,7 +1,7 @@
 package com.tienda.controller;
 
-import com.tienda.dao.UserDAO;
 import com.tienda.model.User;
+import com.tienda.service.AuthService;
 import com.tienda.util.SceneManager;
 import com.tienda.util.SessionManager;
 
@@ -20,12 +20,12 @@ public class LoginController implements Initializable {
     @FXML private Hyperlink registerLink;
     @FXML private Label errorLabel;
 
-    private UserDAO userDAO;
+    private AuthService authService;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        // Inicializar el servicio de usuario
-        userDAO = new UserDAO();
+        // Inicializar el servicio de autenticación
+        authService = new AuthService();
         
         // Configurar validación en tiempo real
         setupValidation();
@@ -72,12 +72,15 @@ public class LoginController implements Initializable {
 
         try {
             // Intentar autenticar al usuario
-            User user = userDAO.validateCredentials(email, password) ? userDAO.findByEmail(email) : null;
+            // Usuario, rol y hash en una sola consulta; la contraseña se verifica en la aplicación
+            User user = authService.authenticate(email, password);
             
             if (user != null) {
                 hideError();
 
                 SessionManager.startSession(user);
+                // Las pantallas más pesadas se arman mientras se muestra el mensaje
+                SceneManager.preloadAfterLogin();
                 
                 // Mostrar mensaje de éxito
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -17,12 +17,12 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.tienda.dao.ProductCategoryDAO;
 import com.tienda.dao.ProductDAO;
 import com.tienda.model.Product;
 import com.tienda.model.ProductCategory;
+import com.tienda.model.dtos.ProductFilterDTO;
 
 public class ProductManagementController {
 
@@ -55,8 +55,8 @@ public class ProductManagementController {
     private ProductDAO productDAO;
     private ProductCategoryDAO categoryDAO;
     
-    private ObservableList<Product> allProducts;
-    private ObservableList<Product> filteredProducts;
+    // Ids que cumplen los filtros; los productos se traen solo para la página visible
+    private int[] filteredIds = new int[0];
     
     private int currentPage = 0;
     private int pageSize = 20;
@@ -71,9 +71,6 @@ public class ProductManagementController {
         
         currencyFormat = new DecimalFormat("$#,##0.00");
         
-        allProducts = FXCollections.observableArrayList();
-        filteredProducts = FXCollections.observableArrayList();
-        
         setupTableColumns();
         loadCategories();
         setupComboBoxListeners();
@@ -212,9 +209,6 @@ public class ProductManagementController {
     }
 
     private void loadProducts() {
-        allProducts.clear();
-        List<Product> products = productDAO.findAll();
-        allProducts.addAll(products);
         applyFilters();
     }
 
@@ -224,49 +218,17 @@ public class ProductManagementController {
     }
 
     private void applyFilters() {
-        String searchText = txtSearch.getText().toLowerCase().trim();
         ProductCategory selectedCategory = cbCategoryFilter.getValue();
-        String stockFilter = cbStockFilter.getValue();
         
-        filteredProducts.clear();
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setText(txtSearch.getText());
+        filter.setCategoryId(selectedCategory != null ? selectedCategory.getId() : null);
+        filter.setStockFilter(cbStockFilter.getValue());
         
-        List<Product> filtered = allProducts.stream()
-            .filter(product -> {
-                // Filtro de búsqueda por texto
-                boolean matchesSearch = searchText.isEmpty() || 
-                    product.getCode().toLowerCase().contains(searchText) ||
-                    product.getName().toLowerCase().contains(searchText) ||
-                    (product.getDescription() != null && product.getDescription().toLowerCase().contains(searchText));
-                
-                // Filtro por categoría
-                boolean matchesCategory = selectedCategory == null || 
-                    selectedCategory.getId() == 0 ||
-                    (product.getCategory() != null && product.getCategory().getId() == selectedCategory.getId());
-                
-                // Filtro por stock
-                boolean matchesStock = true;
-                if (stockFilter != null && !stockFilter.equals("Todos")) {
-                    switch (stockFilter) {
-                        case "Con Stock":
-                            matchesStock = product.getStock() > 0;
-                            break;
-                        case "Sin Stock":
-                            matchesStock = product.getStock() == 0;
-                            break;
-                        case "Stock Bajo":
-                            matchesStock = product.getStock() > 0 && product.getStock() < 10;
-                            break;
-                    }
-                }
-                
-                return matchesSearch && matchesCategory && matchesStock;
-            })
-            .collect(Collectors.toList());
-        
-        filteredProducts.addAll(filtered);
+        filteredIds = productDAO.searchIds(filter);
         
         // Actualizar contador
-        lblTotalProducts.setText("Total: " + filteredProducts.size() + " productos");
+        lblTotalProducts.setText("Total: " + filteredIds.length + " productos");
         
         // Resetear paginación
         currentPage = 0;
@@ -274,19 +236,20 @@ public class ProductManagementController {
     }
 
     private void updateTableView() {
-        totalPages = (int) Math.ceil((double) filteredProducts.size() / pageSize);
+        totalPages = (int) Math.ceil((double) filteredIds.length / pageSize);
         if (totalPages == 0) totalPages = 1;
         
         int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, filteredProducts.size());
+        int toIndex = Math.min(fromIndex + pageSize, filteredIds.length);
         
-        if (fromIndex < filteredProducts.size()) {
-            tblProducts.setItems(FXCollections.observableArrayList(
-                filteredProducts.subList(fromIndex, toIndex)
-            ));
-        } else {
-            tblProducts.setItems(FXCollections.observableArrayList());
+        ObservableList<Product> page = FXCollections.observableArrayList();
+        for (int i = fromIndex; i < toIndex; i++) {
+            Product product = productDAO.findById(filteredIds[i]);
+            if (product != null) {
+                page.add(product);
+            }
         }
+        tblProducts.setItems(page);
         
         updatePaginationButtons();
     }
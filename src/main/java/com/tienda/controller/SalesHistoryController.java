@@ -20,12 +20,16 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import com.tienda.dao.CreditDAO;
+import com.tienda.dao.PageDirection;
 import com.tienda.dao.PurchaseDAO;
-import com.tienda.dao.PurchaseDetailsDAO;
 import com.tienda.model.Credit;
 import com.tienda.model.Purchase;
+import com.tienda.model.dtos.SaleFilterDTO;
+import com.tienda.model.dtos.SalesSummaryDTO;
+import com.tienda.util.AsyncLoader;
+import com.tienda.util.ViewLifecycle;
 
-public class SalesHistoryController {
+public class SalesHistoryController implements ViewLifecycle {
 
     @FXML private DatePicker dpStartDate;
     @FXML private DatePicker dpEndDate;
@@ -65,15 +69,19 @@ public class SalesHistoryController {
     @FXML private ComboBox<String> cbPageSize;
     
     private PurchaseDAO purchaseDAO;
-    private PurchaseDetailsDAO purchaseDetailsDAO;
     private CreditDAO creditDAO;
     
-    private ObservableList<Purchase> allSales;
-    private ObservableList<Purchase> filteredSales;
+    // Las consultas corren fuera del hilo de JavaFX; una búsqueda nueva descarta la anterior
+    private AsyncLoader pageLoader;
+    
+    // Filtros de la última búsqueda; la paginación se resuelve en la base de datos
+    private SaleFilterDTO currentFilter;
+    private ObservableList<Purchase> currentPageSales;
     
     private int currentPage = 0;
     private int pageSize = 20;
     private int totalPages = 0;
+    private int totalCount = 0;
     
     private DecimalFormat currencyFormat;
     private DateTimeFormatter dateFormatter;
@@ -81,18 +89,21 @@ public class SalesHistoryController {
     @FXML
     public void initialize() {
         purchaseDAO = new PurchaseDAO();
-        purchaseDetailsDAO = new PurchaseDetailsDAO();
         creditDAO = new CreditDAO();
         
         currencyFormat = new DecimalFormat("$#,##0.00");
         dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         
-        allSales = FXCollections.observableArrayList();
-        filteredSales = FXCollections.observableArrayList();
+        currentPageSales = FXCollections.observableArrayList();
+        
+        pageLoader = new AsyncLoader();
+        pageLoader.setOnLoadingChanged(this::setLoading);
+        pageLoader.setOnError(e -> showAlert(Alert.AlertType.ERROR, "Error",
+                "No se pudieron cargar las ventas: " + e.getMessage()));
         
         setupTableColumns();
         setupComboBoxListeners();
-        loadInitialData();
+        setDefaultDates();
     }
 
     private void setupTableColumns() {
@@ -134,11 +145,7 @@ public class SalesHistoryController {
             new SimpleStringProperty(currencyFormat.format(cellData.getValue().getTotal()))
         );
         
-        colProducts.setCellValueFactory(cellData -> {
-            int saleId = cellData.getValue().getId();
-            int productCount = purchaseDetailsDAO.countProductsBySale(saleId);
-            return new javafx.beans.property.SimpleIntegerProperty(productCount).asObject();
-        });
+        colProducts.setCellValueFactory(new PropertyValueFactory<>("productCount"));
         
         // Columna de acciones con botones
         colActions.setCellFactory(param -> new TableCell<>() {
@@ -189,21 +196,22 @@ public class SalesHistoryController {
         cbPageSize.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
                 pageSize = Integer.parseInt(newVal);
-                currentPage = 0;
-                updateTableView();
+                if (currentFilter != null) {
+                    updateTotalPages();
+                    currentPage = 0;
+                    loadPage(PageDirection.FIRST);
+                }
             }
         });
     }
 
-    private void loadInitialData() {
-        // Cargar ventas del último mes por defecto
+    private void setDefaultDates() {
+        // Ventas del último mes por defecto
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusMonths(1);
         
         dpStartDate.setValue(startDate);
         dpEndDate.setValue(endDate);
-        
-        handleSearch();
     }
 
     @FXML
@@ -230,47 +238,113 @@ public class SalesHistoryController {
             return;
         }
         
-        // Obtener todas las ventas con filtros desde el DAO
-        allSales.clear();
-        List<Purchase> sales = purchaseDAO.findWithFilters(
-            startDate, endDate, saleType, clientName, userName, saleId, minAmount, maxAmount
-        );
-        allSales.addAll(sales);
-        
-        // Aplicar filtros locales adicionales si es necesario
-        applyFilters();
-        
-        // Actualizar estadísticas
-        updateStatistics();
+        SaleFilterDTO filter = new SaleFilterDTO();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        filter.setSaleType(saleType);
+        filter.setClientName(clientName);
+        filter.setUserName(userName);
+        filter.setSaleId(saleId);
+        filter.setMinAmount(minAmount);
+        filter.setMaxAmount(maxAmount);
+        search(filter);
+    }
+
+    /**
+     * Estadísticas y primera página para el filtro dado. Las estadísticas salen
+     * de un agregado en la base de datos, sin cargar las ventas filtradas.
+     */
+    private void search(SaleFilterDTO filter) {
+        currentFilter = filter;
         
-        // Resetear paginación
+        // Resetear paginación. El total se cuenta una vez por búsqueda; las páginas no lo recalculan
         currentPage = 0;
-        updateTableView();
+        int size = pageSize;
+        pageLoader.submit(
+            () -> new SearchResult(
+                purchaseDAO.summarize(filter),
+                purchaseDAO.findPage(filter, PageDirection.FIRST, null, size)),
+            result -> {
+                totalCount = result.summary().getTotalSales();
+                updateTotalPages();
+                showStatistics(result.summary());
+                showPage(result.page());
+            }
+        );
     }
 
-    private void applyFilters() {
-        filteredSales.clear();
-        filteredSales.addAll(allSales);
+    /**
+     * La primera vez busca con los filtros por defecto. La vista queda en
+     * caché: al volver se repite la última búsqueda para reflejar las ventas
+     * registradas mientras tanto.
+     */
+    @Override
+    public void onShow() {
+        if (currentFilter != null) {
+            search(currentFilter);
+        } else {
+            handleSearch();
+        }
+    }
+
+    @Override
+    public void onHide() {
+        pageLoader.cancel();
     }
 
-    private void updateTableView() {
-        totalPages = (int) Math.ceil((double) filteredSales.size() / pageSize);
+    private void updateTotalPages() {
+        totalPages = (int) Math.ceil((double) totalCount / pageSize);
         if (totalPages == 0) totalPages = 1;
+    }
+
+    /**
+     * Carga solo las filas visibles. NEXT/PREVIOUS buscan a partir de la última
+     * o la primera venta de la página actual.
+     */
+    private void loadPage(PageDirection direction) {
+        Purchase cursor = null;
+        if (direction == PageDirection.NEXT && !currentPageSales.isEmpty()) {
+            cursor = currentPageSales.get(currentPageSales.size() - 1);
+        } else if (direction == PageDirection.PREVIOUS && !currentPageSales.isEmpty()) {
+            cursor = currentPageSales.get(0);
+        }
         
-        int fromIndex = currentPage * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, filteredSales.size());
-        
-        if (fromIndex < filteredSales.size()) {
-            tblSales.setItems(FXCollections.observableArrayList(
-                filteredSales.subList(fromIndex, toIndex)
-            ));
-        } else {
-            tblSales.setItems(FXCollections.observableArrayList());
+        // La última página solo tiene el residuo, para que quede alineada con las demás
+        int size = pageSize;
+        if (direction == PageDirection.LAST && totalCount % pageSize != 0) {
+            size = totalCount % pageSize;
         }
         
+        SaleFilterDTO filter = currentFilter;
+        Purchase pageCursor = cursor;
+        int pageRows = size;
+        pageLoader.submit(() -> purchaseDAO.findPage(filter, direction, pageCursor, pageRows), this::showPage);
+    }
+
+    private void showPage(List<Purchase> page) {
+        currentPageSales = FXCollections.observableArrayList(page);
+        tblSales.setItems(currentPageSales);
+        
         updatePaginationButtons();
     }
 
+    /**
+     * Mientras se consulta una página se bloquea la navegación: NEXT/PREVIOUS
+     * dependen de las filas que están en pantalla.
+     */
+    private void setLoading(boolean loading) {
+        btnSearch.setDisable(loading);
+        if (loading) {
+            btnFirstPage.setDisable(true);
+            btnPrevPage.setDisable(true);
+            btnNextPage.setDisable(true);
+            btnLastPage.setDisable(true);
+            lblPageInfo.setText("Cargando...");
+        } else {
+            updatePaginationButtons();
+        }
+    }
+
     private void updatePaginationButtons() {
         lblPageInfo.setText("Página " + (currentPage + 1) + " de " + totalPages);
         
@@ -280,26 +354,11 @@ public class SalesHistoryController {
         btnLastPage.setDisable(currentPage >= totalPages - 1);
     }
 
-    private void updateStatistics() {
-        int totalSales = filteredSales.size();
-        double totalAmount = filteredSales.stream()
-            .mapToDouble(Purchase::getTotal)
-            .sum();
-        
-        double cashSales = filteredSales.stream()
-            .filter(s -> "COUNT".equals(s.getSaleType()))
-            .mapToDouble(Purchase::getTotal)
-            .sum();
-        
-        double creditSales = filteredSales.stream()
-            .filter(s -> "CREDIT".equals(s.getSaleType()))
-            .mapToDouble(Purchase::getTotal)
-            .sum();
-        
-        lblTotalSales.setText(String.valueOf(totalSales));
-        lblTotalAmount.setText(currencyFormat.format(totalAmount));
-        lblCashSales.setText(currencyFormat.format(cashSales));
-        lblCreditSales.setText(currencyFormat.format(creditSales));
+    private void showStatistics(SalesSummaryDTO summary) {
+        lblTotalSales.setText(String.valueOf(summary.getTotalSales()));
+        lblTotalAmount.setText(currencyFormat.format(summary.getTotalAmount()));
+        lblCashSales.setText(currencyFormat.format(summary.getCashSales()));
+        lblCreditSales.setText(currencyFormat.format(summary.getCreditSales()));
     }
 
     @FXML
@@ -313,7 +372,8 @@ public class SalesHistoryController {
         txtMinAmount.clear();
         txtMaxAmount.clear();
         
-        loadInitialData();
+        setDefaultDates();
+        handleSearch();
     }
 
     @FXML
@@ -326,14 +386,14 @@ public class SalesHistoryController {
     @FXML
     private void handleFirstPage() {
         currentPage = 0;
-        updateTableView();
+        loadPage(PageDirection.FIRST);
     }
 
     @FXML
     private void handlePrevPage() {
         if (currentPage > 0) {
             currentPage--;
-            updateTableView();
+            loadPage(currentPage == 0 ? PageDirection.FIRST : PageDirection.PREVIOUS);
         }
     }
 
@@ -341,14 +401,14 @@ public class SalesHistoryController {
     private void handleNextPage() {
         if (currentPage < totalPages - 1) {
             currentPage++;
-            updateTableView();
+            loadPage(PageDirection.NEXT);
         }
     }
 
     @FXML
     private void handleLastPage() {
         currentPage = totalPages - 1;
-        updateTableView();
+        loadPage(currentPage == 0 ? PageDirection.FIRST : PageDirection.LAST);
     }
 
     private void showSaleDetails(Purchase sale) {
@@ -401,6 +461,9 @@ public class SalesHistoryController {
         }
     }
 
+    private record SearchResult(SalesSummaryDTO summary, List<Purchase> page) {
+    }
+
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
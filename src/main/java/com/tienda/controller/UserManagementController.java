@@ -2,21 +2,18 @@ package com.tienda.controller;
 
 import com.tienda.dao.UserDAO;
 import com.tienda.model.User;
+import com.tienda.service.AuthService;
+import com.tienda.util.SceneManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
-import javafx.stage.Stage;
 
-import java.io.IOException;
 import java.net.URL;
 import java.sql.SQLException;
 import java.util.List;
@@ -187,6 +184,9 @@ public class UserManagementController implements Initializable {
                 boolean deleted = userDAO.deleteUser(user.getId());
                 
                 if (deleted) {
+                    // El usuario eliminado no debe poder entrar con la caché de login
+                    AuthService.invalidateCache();
+                    
                     // Mostrar mensaje de éxito
                     showSuccess("Usuario Eliminado", "El usuario ha sido eliminado correctamente.");
                     
@@ -245,30 +245,7 @@ public class UserManagementController implements Initializable {
 
     @FXML
     private void handleBack() {
-        try {
-            // Obtener el Stage actual
-            Stage currentStage = (Stage) btnBack.getScene().getWindow();
-            
-            // Cargar la vista del Home
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/MainWindow.fxml"));
-            Parent root = loader.load();
-            
-            // Cargar CSS si existe
-            URL cssUrl = getClass().getResource("/com/tienda/css/home.css");
-            if (cssUrl != null) {
-                root.getStylesheets().add(cssUrl.toExternalForm());
-            }
-            
-            // Cambiar la escena
-            Scene scene = new Scene(root);
-            currentStage.setScene(scene);
-            currentStage.setTitle("Home");
-            
-        } catch (IOException e) {
-            System.err.println("Error al volver al Home: " + e.getMessage());
-            e.printStackTrace();
-            showError("Error", "No se pudo volver al Home", e.getMessage());
-        }
+        SceneManager.switchScene("/views/MainWindow.fxml", "Home");
     }
 
     // Métodos auxiliares para mostrar alertas
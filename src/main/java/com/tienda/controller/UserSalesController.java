@@ -1,27 +1,25 @@
 package com.tienda.controller;
 
-import com.tienda.dao.UserDAO;
+import com.tienda.dao.SalesDashboardDAO;
+import com.tienda.model.dtos.SalesDashboardDTO;
 import com.tienda.model.dtos.UserSalesDTO;
+import com.tienda.util.AsyncLoader;
+import com.tienda.util.ViewLifecycle;
+import com.tienda.util.SceneManager;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 
-import java.io.IOException;
 import java.net.URL;
 import java.sql.Date;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.ResourceBundle;
 
-public class UserSalesController implements Initializable {
+public class UserSalesController implements Initializable, ViewLifecycle {
 
     @FXML private TableView<UserSalesDTO> tableUserSales;
     @FXML private TableColumn<UserSalesDTO, Integer> colId;
@@ -40,16 +38,27 @@ public class UserSalesController implements Initializable {
     @FXML private Button btnFilter;
     @FXML private Button btnClearFilter;
 
-    private UserDAO userDAO;
+    private SalesDashboardDAO dashboardDAO;
     private ObservableList<UserSalesDTO> userSalesList;
     private Date currentStartDate;
     private Date currentEndDate;
+    private AsyncLoader salesLoader;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        userDAO = new UserDAO();
+        dashboardDAO = new SalesDashboardDAO();
         userSalesList = FXCollections.observableArrayList();
         
+        // Mientras se consulta se bloquean los botones que lanzarían otra consulta
+        salesLoader = new AsyncLoader();
+        salesLoader.setOnLoadingChanged(loading -> {
+            btnFilter.setDisable(loading);
+            btnRefresh.setDisable(loading);
+            btnClearFilter.setDisable(loading);
+        });
+        salesLoader.setOnError(e ->
+            showError("Error", "No se pudieron cargar los datos", e.getMessage()));
+        
         // Configurar las columnas
         setupTableColumns();
         
@@ -111,66 +120,66 @@ public class UserSalesController implements Initializable {
         }
     }
 
+    @Override
+    public void onShow() {
+        if (currentStartDate != null && currentEndDate != null) {
+            loadUserSales(currentStartDate, currentEndDate);
+        }
+    }
+
+    @Override
+    public void onHide() {
+        salesLoader.cancel();
+    }
+
     /**
      * Carga los datos de ventas por usuario
      */
     private void loadUserSales(Date startDate, Date endDate) {
-        try {
-            // Validar fechas
-            if (startDate.after(endDate)) {
-                showError("Error de Fechas", "La fecha inicial no puede ser posterior a la fecha final", "");
-                return;
-            }
-            
-            currentStartDate = startDate;
-            currentEndDate = endDate;
-            
-            // Cargar ventas por usuario
-            List<UserSalesDTO> salesData = userDAO.getUserSales(startDate, endDate);
-            userSalesList.clear();
-            userSalesList.addAll(salesData);
-            tableUserSales.setItems(userSalesList);
-            
-            // Actualizar estadísticas
-            updateStatistics(startDate, endDate);
-            
-            // Actualizar info del periodo
-            updatePeriodInfo(startDate, endDate);
-            
-            System.out.println("Datos cargados: " + salesData.size() + " usuarios");
-            
-        } catch (Exception e) {
-            System.err.println("Error al cargar datos de ventas: " + e.getMessage());
-            e.printStackTrace();
-            showError("Error", "No se pudieron cargar los datos", e.getMessage());
+        // Validar fechas
+        if (startDate.after(endDate)) {
+            showError("Error de Fechas", "La fecha inicial no puede ser posterior a la fecha final", "");
+            return;
         }
+        
+        currentStartDate = startDate;
+        currentEndDate = endDate;
+        
+        // Por usuario, por tipo y total en una sola consulta, fuera del hilo de JavaFX
+        salesLoader.submit(
+            () -> dashboardDAO.getDashboard(startDate, endDate),
+            data -> {
+                userSalesList.clear();
+                userSalesList.addAll(data.getUserSales());
+                tableUserSales.setItems(userSalesList);
+                
+                // Actualizar estadísticas
+                updateStatistics(data);
+                
+                // Actualizar info del periodo
+                updatePeriodInfo(startDate, endDate);
+                
+                System.out.println("Datos cargados: " + data.getUserSales().size() + " usuarios");
+            }
+        );
     }
 
     /**
      * Actualiza las estadísticas generales
      */
-    private void updateStatistics(Date startDate, Date endDate) {
-        try {
-            // Total de usuarios
-            int totalUsers = tableUserSales.getItems().size();
-            lblTotalUsers.setText(String.valueOf(totalUsers));
-            
-            // Total de ventas
-            int totalSales = userDAO.getTotalSales(userSalesList);
-            lblTotalSales.setText(String.valueOf(totalSales));
-            
-            // Ventas de contado
-            int countSales = userDAO.getTotalCountSales(startDate, endDate);
-            lblCountSales.setText(String.valueOf(countSales));
-            
-            // Ventas a crédito
-            int creditSales = userDAO.getTotalCreditSales(startDate, endDate);
-            lblCreditSales.setText(String.valueOf(creditSales));
-            
-        } catch (Exception e) {
-            System.err.println("Error actualizando estadísticas: " + e.getMessage());
-            e.printStackTrace();
-        }
+    private void updateStatistics(SalesDashboardDTO data) {
+        // Total de usuarios
+        int totalUsers = tableUserSales.getItems().size();
+        lblTotalUsers.setText(String.valueOf(totalUsers));
+        
+        // Total de ventas
+        lblTotalSales.setText(String.valueOf(data.getTotalSales()));
+        
+        // Ventas de contado
+        lblCountSales.setText(String.valueOf(data.getCountSales()));
+        
+        // Ventas a crédito
+        lblCreditSales.setText(String.valueOf(data.getCreditSales()));
     }
 
     /**
@@ -216,25 +225,7 @@ public class UserSalesController implements Initializable {
 
     @FXML
     private void handleBack() {
-        try {
-            Stage currentStage = (Stage) btnBack.getScene().getWindow();
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/MainWindow.fxml"));
-            Parent root = loader.load();
-            
-            URL cssUrl = getClass().getResource("/com/tienda/css/home.css");
-            if (cssUrl != null) {
-                root.getStylesheets().add(cssUrl.toExternalForm());
-            }
-            
-            Scene scene = new Scene(root);
-            currentStage.setScene(scene);
-            currentStage.setTitle("Home");
-            
-        } catch (IOException e) {
-            System.err.println("Error al volver al Home: " + e.getMessage());
-            e.printStackTrace();
-            showError("Error", "No se pudo volver al Home", e.getMessage());
-        }
+        SceneManager.switchScene("/views/MainWindow.fxml", "Home");
     }
 
     // Métodos auxiliares para alertas
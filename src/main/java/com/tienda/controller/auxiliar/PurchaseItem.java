@@ -17,12 +17,12 @@ public class PurchaseItem {
     private DoubleProperty total = new SimpleDoubleProperty();
     
     public void calculateTotals() {
-        // double sub = getQuantity() * getUnitCost();
-        // double iva = sub * getIvaRate();
-        // double tot = sub + iva;
+        double sub = quantity.get() * unitCost.get();
+        double iva = sub * ivaRate.get();
+        double tot = sub + iva;
         
-        // setSubtotal(sub);
-        // setIvaAmount(iva);
-        // setTotal(tot);
+        subtotal.set(sub);
+        ivaAmount.set(iva);
+        total.set(tot);
     }
 }
\ No newline at end of file
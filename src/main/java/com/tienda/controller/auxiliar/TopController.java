@@ -96,6 +96,8 @@ public class TopController {
     @FXML
     private void logout() {
         SessionManager.endSession();
+        // Las vistas en caché guardan datos del usuario que sale
+        SceneManager.clearSessionViews();
         openWindow("/views/Login.fxml", "Manual de Usuario");
     }
 
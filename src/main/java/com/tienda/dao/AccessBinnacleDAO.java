@@ -1,73 +1,198 @@
 package com.tienda.dao;
 
 import com.tienda.model.AccessBinnacle;
+import com.tienda.model.User;
+import com.tienda.model.dtos.AccessLogFilterDTO;
+import com.tienda.model.dtos.AccessLogSummaryDTO;
 import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class AccessBinnacleDAO {
+    // El nombre del usuario viaja con cada entrada para no consultarlo aparte
+    private static final String ENTRY_COLUMNS = """
+            ab.id, ab.entry_date_time, ab.departure_date_time, ab.ip, ab.user_id,
+                   u.name AS user_name
+            """;
+    private static final String ENTRY_FROM = """
+            FROM access_binnacle ab
+            LEFT JOIN users u ON ab.user_id = u.id
+            WHERE 1=1
+            """;
+
     private final DatabaseConnection dbConnection;
     
     public AccessBinnacleDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
     }
     
-    public int create(AccessBinnacle binnacle) throws Exception {
-        String sql = "INSERT INTO access_binnacle (entry_date_time, ip, user_id) VALUES (?, ?, ?)";
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    /**
+     * Obtiene una página de la bitácora filtrada, ordenada por
+     * (entry_date_time DESC, id DESC), con el nombre del usuario en la misma
+     * consulta.
+     *
+     * Igual que el historial de ventas, NEXT y PREVIOUS buscan a partir de la
+     * fila cursor en lugar de usar OFFSET, y las condiciones coinciden con los
+     * índices IX_access_binnacle_user e IX_access_binnacle_entry.
+     */
+    public List<AccessBinnacle> findPage(AccessLogFilterDTO filter, PageDirection direction,
+                                         AccessBinnacle cursor, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT TOP (?) " + ENTRY_COLUMNS + ENTRY_FROM);
+        List<Object> params = new ArrayList<>();
+        params.add(pageSize);
+        appendFilters(sql, params, filter);
 
-            ps.setTimestamp(1, Timestamp.valueOf(binnacle.getEntryDateTime()));
-            ps.setString(2, binnacle.getIp());
-            ps.setInt(3, binnacle.getUser().getId());
-            ps.executeUpdate();
+        // Las páginas hacia atrás se leen en orden ascendente y luego se invierten
+        boolean backwards = direction == PageDirection.PREVIOUS || direction == PageDirection.LAST;
 
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                } else {
-                    throw new SQLException("No se pudo obtener id generado para AccessBinnacle");
-                }
-            }
+        if (cursor != null && direction == PageDirection.NEXT) {
+            sql.append(" AND (ab.entry_date_time < ? OR (ab.entry_date_time = ? AND ab.id < ?))");
+            params.add(Timestamp.valueOf(cursor.getEntryDateTime()));
+            params.add(Timestamp.valueOf(cursor.getEntryDateTime()));
+            params.add(cursor.getId());
+        } else if (cursor != null && direction == PageDirection.PREVIOUS) {
+            sql.append(" AND (ab.entry_date_time > ? OR (ab.entry_date_time = ? AND ab.id > ?))");
+            params.add(Timestamp.valueOf(cursor.getEntryDateTime()));
+            params.add(Timestamp.valueOf(cursor.getEntryDateTime()));
+            params.add(cursor.getId());
         }
-    }
-    
-    public List<AccessBinnacle> findAll() {
+
+        sql.append(backwards
+                ? " ORDER BY ab.entry_date_time ASC, ab.id ASC"
+                : " ORDER BY ab.entry_date_time DESC, ab.id DESC");
+
         List<AccessBinnacle> entries = new ArrayList<>();
-        String sql = "SELECT * FROM access_binnacle ORDER BY entry_date_time DESC";
-        
+
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                entries.add(mapResultSetToAccessBinnacle(rs));
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(mapResultSetToAccessBinnacle(rs));
+                }
             }
-            
+
         } catch (SQLException e) {
-            System.err.println("Error obteniendo bitácora de acceso: " + e.getMessage());
+            System.err.println("Error obteniendo página de bitácora: " + e.getMessage());
+        }
+
+        if (backwards) {
+            Collections.reverse(entries);
         }
         return entries;
     }
-    
-    public boolean updateDepartureTime(int id, LocalDateTime departureTime) {
-        String sql = "UPDATE access_binnacle SET departure_date_time = ? WHERE id = ?";
-        
+
+    /**
+     * Total de registros y sesiones activas del filtro en un solo agregado
+     */
+    public AccessLogSummaryDTO summarize(AccessLogFilterDTO filter) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT COUNT(*) AS total,
+                       COALESCE(SUM(CASE WHEN ab.departure_date_time IS NULL THEN 1 ELSE 0 END), 0) AS active
+                FROM access_binnacle ab
+                WHERE 1=1
+                """);
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, filter);
+
+        AccessLogSummaryDTO summary = new AccessLogSummaryDTO();
+
         try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setTimestamp(1, Timestamp.valueOf(departureTime));
-            stmt.setInt(2, id);
-            
-            return stmt.executeUpdate() > 0;
-            
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    summary.setTotalEntries(rs.getInt("total"));
+                    summary.setActiveSessions(rs.getInt("active"));
+                }
+            }
+
         } catch (SQLException e) {
-            System.err.println("Error actualizando hora de salida: " + e.getMessage());
+            System.err.println("Error resumiendo bitácora de acceso: " + e.getMessage());
+        }
+        return summary;
+    }
+
+    /**
+     * Agrega al WHERE las condiciones de usuario y rango de fechas. La fecha
+     * final incluye todo el día.
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params, AccessLogFilterDTO filter) {
+        if (filter.getUserId() != null) {
+            sql.append(" AND ab.user_id = ?");
+            params.add(filter.getUserId());
+        }
+
+        if (filter.getStartDate() != null) {
+            sql.append(" AND ab.entry_date_time >= ?");
+            params.add(Timestamp.valueOf(filter.getStartDate().atStartOfDay()));
+        }
+
+        if (filter.getEndDate() != null) {
+            sql.append(" AND ab.entry_date_time < ?");
+            params.add(Timestamp.valueOf(filter.getEndDate().plusDays(1).atStartOfDay()));
+        }
+    }
+
+    private void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+    
+    /**
+     * Inserta las entradas como un solo lote dentro de la transacción del
+     * llamador. Las que ya traen hora de salida se insertan cerradas.
+     */
+    public void insertAll(Connection conn, List<AccessBinnacle> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO access_binnacle (entry_date_time, departure_date_time, ip, user_id) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (AccessBinnacle entry : entries) {
+                stmt.setTimestamp(1, Timestamp.valueOf(entry.getEntryDateTime()));
+                if (entry.getDepartureDateTime() != null) {
+                    stmt.setTimestamp(2, Timestamp.valueOf(entry.getDepartureDateTime()));
+                } else {
+                    stmt.setNull(2, Types.TIMESTAMP);
+                }
+                stmt.setString(3, entry.getIp());
+                stmt.setInt(4, entry.getUser().getId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Registra la hora de salida de entradas ya insertadas, como un solo lote.
+     * Cada entrada se ubica por usuario y hora de entrada (índice
+     * IX_access_binnacle_user), así no hace falta el id generado.
+     */
+    public void closeAll(Connection conn, List<AccessBinnacle> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String sql = """
+                UPDATE access_binnacle SET departure_date_time = ?
+                WHERE user_id = ? AND entry_date_time = ? AND departure_date_time IS NULL
+                """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (AccessBinnacle entry : entries) {
+                stmt.setTimestamp(1, Timestamp.valueOf(entry.getDepartureDateTime()));
+                stmt.setInt(2, entry.getUser().getId());
+                stmt.setTimestamp(3, Timestamp.valueOf(entry.getEntryDateTime()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
-        return false;
     }
     
     private AccessBinnacle mapResultSetToAccessBinnacle(ResultSet rs) throws SQLException {
@@ -81,7 +206,12 @@ public class AccessBinnacleDAO {
         }
         
         entry.setIp(rs.getString("ip"));
-        entry.setUser(new UserDAO().findById(rs.getInt("user_id")));
+        
+        // Solo lo que muestra la bitácora; el usuario completo se consulta con UserDAO
+        User user = new User();
+        user.setId(rs.getInt("user_id"));
+        user.setName(rs.getString("user_name"));
+        entry.setUser(user);
         return entry;
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.tienda.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Cargador por lotes de asociaciones (estilo DataLoader).
+ *
+ * Durante el mapeo de un ResultSet se registran las llaves foráneas con
+ * load(); dispatch() las resuelve todas con una sola consulta IN (...) y
+ * entrega cada entidad a quien la pidió. Las entidades ya cargadas se guardan
+ * en un mapa de identidad, así una misma llave nunca se consulta dos veces.
+ */
+public class BatchLoader<K, V> {
+
+    // SQL Server admite hasta 2100 parámetros por sentencia
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final Map<K, V> identityMap = new HashMap<>();
+    private final Map<K, List<Consumer<V>>> pending = new LinkedHashMap<>();
+
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * Registra una llave; el callback recibe la entidad (o null si no existe)
+     * inmediatamente si ya estaba cargada, o en el próximo dispatch()
+     */
+    public void load(K key, Consumer<V> callback) {
+        if (identityMap.containsKey(key)) {
+            callback.accept(identityMap.get(key));
+            return;
+        }
+        pending.computeIfAbsent(key, k -> new ArrayList<>()).add(callback);
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Carga todas las llaves pendientes en lotes y ejecuta los callbacks
+     */
+    public void dispatch() {
+        while (!pending.isEmpty()) {
+            Map<K, List<Consumer<V>>> batch = new LinkedHashMap<>(pending);
+            pending.clear();
+
+            List<K> keys = new ArrayList<>(batch.keySet());
+            for (int from = 0; from < keys.size(); from += MAX_BATCH_SIZE) {
+                List<K> chunk = keys.subList(from, Math.min(from + MAX_BATCH_SIZE, keys.size()));
+                Map<K, V> loaded = batchFunction.apply(chunk);
+                for (K key : chunk) {
+                    identityMap.put(key, loaded.get(key));
+                }
+            }
+
+            for (Map.Entry<K, List<Consumer<V>>> entry : batch.entrySet()) {
+                V value = identityMap.get(entry.getKey());
+                for (Consumer<V> callback : entry.getValue()) {
+                    callback.accept(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrega al mapa de identidad una entidad obtenida por otra vía
+     */
+    public void prime(K key, V value) {
+        identityMap.putIfAbsent(key, value);
+    }
+
+    /**
+     * Placeholders para una cláusula IN. El tamaño se redondea a la siguiente
+     * potencia de dos para que la caché de sentencias vea pocas variantes del SQL.
+     */
+    static String inPlaceholders(int count) {
+        int padded = paddedSize(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < padded; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Asigna las llaves a los placeholders de inPlaceholders(), repitiendo la
+     * última para completar el relleno
+     */
+    static void bindIds(PreparedStatement stmt, Collection<Integer> ids) throws SQLException {
+        int index = 1;
+        int last = 0;
+        for (Integer id : ids) {
+            stmt.setInt(index++, id);
+            last = id;
+        }
+        int padded = paddedSize(ids.size());
+        while (index <= padded) {
+            stmt.setInt(index++, last);
+        }
+    }
+
+    private static int paddedSize(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+}
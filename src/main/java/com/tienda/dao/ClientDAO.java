@@ -5,7 +5,9 @@ import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ClientDAO {
     private final DatabaseConnection dbConnection;
@@ -62,6 +64,33 @@ public class ClientDAO {
         return null;
     }
     
+    /**
+     * Carga varios clientes con una sola consulta IN
+     */
+    public Map<Integer, Client> findByIds(List<Integer> ids) {
+        Map<Integer, Client> clients = new HashMap<>();
+        if (ids.isEmpty()) {
+            return clients;
+        }
+        String sql = "SELECT * FROM clients WHERE id IN (" + BatchLoader.inPlaceholders(ids.size()) + ")";
+        
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            BatchLoader.bindIds(stmt, ids);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                Client client = mapResultSetToClient(rs);
+                clients.put(client.getId(), client);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error buscando clientes por lote: " + e.getMessage());
+        }
+        return clients;
+    }
+    
     public Client findByDocumentNumber(String documentNumber) {
         String sql = "SELECT * FROM clients WHERE document_number = ?";
         
@@ -6,15 +6,15 @@ import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CreditDAO {
     private final DatabaseConnection dbConnection;
-    private final PurchaseDAO saleDAO;
 
     public CreditDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
-        this.saleDAO = new PurchaseDAO();
     }
 
     public Credit findBySaleId(int saleId) {
@@ -59,10 +59,23 @@ public class CreditDAO {
     }
 
     public boolean save(Credit credit) {
+        try (Connection conn = dbConnection.getConnection()) {
+            save(conn, credit);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error guardando crédito: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Inserta el crédito con la conexión del llamador, para que quede en su
+     * transacción. Asigna el id generado al crédito.
+     */
+    public void save(Connection conn, Credit credit) throws SQLException {
         String sql = "INSERT INTO credits (initial_quota, amount_financed, months, interest_rate, created_at, state, sale_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setDouble(1, credit.getInitialQuota());
             stmt.setDouble(2, credit.getAmountFinanced());
@@ -71,25 +84,20 @@ public class CreditDAO {
             stmt.setDate(5, Date.valueOf(credit.getCreatedAt()));
             stmt.setString(6, credit.getState());
             stmt.setInt(7, credit.getSale().getId());
+            stmt.executeUpdate();
 
-            int rowsAffected = stmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    credit.setId(rs.getInt(1));
-                }
-                return true;
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (!rs.next()) {
+                throw new SQLException("No se pudo obtener el id generado para el crédito");
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error guardando crédito: " + e.getMessage());
+            credit.setId(rs.getInt(1));
         }
-        return false;
     }
 
     public Credit findById(int id) {
         String sql = "SELECT * FROM credits WHERE id = ?";
+        LoadContext ctx = new LoadContext();
+        Credit credit = null;
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -98,13 +106,42 @@ public class CreditDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToCredit(rs);
+                credit = mapResultSetToCredit(rs, ctx);
             }
 
         } catch (SQLException e) {
             System.err.println("Error buscando crédito: " + e.getMessage());
         }
-        return null;
+        ctx.dispatchAll();
+        return credit;
+    }
+
+    /**
+     * Carga varios créditos con una sola consulta IN; sus ventas se registran
+     * en el contexto y se resuelven en el siguiente dispatch
+     */
+    Map<Integer, Credit> findByIds(List<Integer> ids, LoadContext ctx) {
+        Map<Integer, Credit> credits = new HashMap<>();
+        if (ids.isEmpty()) {
+            return credits;
+        }
+        String sql = "SELECT * FROM credits WHERE id IN (" + BatchLoader.inPlaceholders(ids.size()) + ")";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            BatchLoader.bindIds(stmt, ids);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Credit credit = mapResultSetToCredit(rs, ctx);
+                credits.put(credit.getId(), credit);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error buscando créditos por lote: " + e.getMessage());
+        }
+        return credits;
     }
 
     // public Credit findBySaleId(int saleId) {
@@ -133,6 +170,7 @@ public class CreditDAO {
                 INNER JOIN sales s ON c.sale_id = s.id
                 WHERE s.client_id = ?
                 """;
+        LoadContext ctx = new LoadContext();
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -141,12 +179,13 @@ public class CreditDAO {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                credits.add(mapResultSetToCredit(rs));
+                credits.add(mapResultSetToCredit(rs, ctx));
             }
 
         } catch (SQLException e) {
             System.err.println("Error obteniendo créditos por cliente: " + e.getMessage());
         }
+        ctx.dispatchAll();
         return credits;
     }
 
@@ -190,7 +229,7 @@ public class CreditDAO {
         return false;
     }
 
-    private Credit mapResultSetToCredit(ResultSet rs) throws SQLException {
+    private Credit mapResultSetToCredit(ResultSet rs, LoadContext ctx) throws SQLException {
         Credit credit = new Credit();
         credit.setId(rs.getInt("id"));
         credit.setInitialQuota(rs.getDouble("initial_quota"));
@@ -200,8 +239,8 @@ public class CreditDAO {
         credit.setCreatedAt(rs.getDate("created_at").toLocalDate());
         credit.setState(rs.getString("state"));
 
-        // Cargar venta
-        credit.setSale(saleDAO.findById(rs.getInt("sale_id")));
+        // Cargar venta (por lotes)
+        ctx.sales().load(rs.getInt("sale_id"), credit::setSale);
 
         return credit;
     }
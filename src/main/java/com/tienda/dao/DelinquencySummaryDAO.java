@@ -0,0 +1,95 @@
+package com.tienda.dao;
+
+import com.tienda.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.Collection;
+
+/**
+ * Mantiene delinquency_summary: una fila por crédito con cuotas vencidas
+ * (cantidad, deuda, primer vencimiento y último pago). Quien modifica cuotas
+ * llama a refreshCredits() con la misma conexión y dentro de su transacción,
+ * así el resumen nunca queda desfasado de quotas.
+ */
+public class DelinquencySummaryDAO {
+    private static final String INSERT_COLUMNS = """
+            INSERT INTO delinquency_summary
+                (credit_id, overdue_quotas, total_debt, first_overdue_date, last_payment_date, updated_at)
+            """;
+
+    private final DatabaseConnection dbConnection;
+
+    public DelinquencySummaryDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Agregado por crédito a partir de sus cuotas. El último pago considera
+     * todas las cuotas del crédito, no solo las vencidas.
+     */
+    private String summarySelect(String where) {
+        return """
+                SELECT q.credit_id,
+                       SUM(CASE WHEN q.state = 'VENCIDA' THEN 1 ELSE 0 END),
+                       SUM(CASE WHEN q.state = 'VENCIDA' THEN q.quota_value - COALESCE(q.payed_value, 0) ELSE 0 END),
+                       MIN(CASE WHEN q.state = 'VENCIDA' THEN q.expiration_date END),
+                       MAX(q.payed_at),
+                       %s
+                FROM quotas q
+                %s
+                GROUP BY q.credit_id
+                HAVING SUM(CASE WHEN q.state = 'VENCIDA' THEN 1 ELSE 0 END) > 0
+                """.formatted(dbConnection.getDialect().currentTimestamp(), where);
+    }
+
+    /**
+     * Recalcula la fila de cada crédito indicado. Cada crédito tiene pocas
+     * cuotas, así que el costo depende de los créditos tocados y no del total.
+     */
+    public void refreshCredits(Connection conn, Collection<Integer> creditIds) throws SQLException {
+        if (creditIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM delinquency_summary WHERE credit_id = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                     INSERT_COLUMNS + summarySelect("WHERE q.credit_id = ?"))) {
+
+            for (int creditId : creditIds) {
+                delete.setInt(1, creditId);
+                delete.addBatch();
+                insert.setInt(1, creditId);
+                insert.addBatch();
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Reconstruye el resumen completo a partir de quotas
+     */
+    public boolean rebuild() {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                rebuild(conn);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reconstruyendo resumen de mora: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM delinquency_summary");
+            stmt.executeUpdate(INSERT_COLUMNS + summarySelect(""));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tienda.dao;
+
+import com.tienda.model.Client;
+import com.tienda.model.Credit;
+import com.tienda.model.Purchase;
+import com.tienda.model.User;
+
+/**
+ * Contexto de carga de una petición: agrupa un BatchLoader por tipo de
+ * entidad, que además actúa como mapa de identidad mientras dura la petición.
+ *
+ * Los DAO crean uno por llamada pública, registran las asociaciones al mapear
+ * cada fila y llaman a dispatchAll() antes de devolver el resultado.
+ */
+public class LoadContext {
+
+    private BatchLoader<Integer, Client> clients;
+    private BatchLoader<Integer, User> users;
+    private BatchLoader<Integer, Credit> credits;
+    private BatchLoader<Integer, Purchase> sales;
+
+    public BatchLoader<Integer, Client> clients() {
+        if (clients == null) {
+            ClientDAO dao = new ClientDAO();
+            clients = new BatchLoader<>(dao::findByIds);
+        }
+        return clients;
+    }
+
+    public BatchLoader<Integer, User> users() {
+        if (users == null) {
+            UserDAO dao = new UserDAO();
+            users = new BatchLoader<>(dao::findByIds);
+        }
+        return users;
+    }
+
+    public BatchLoader<Integer, Credit> credits() {
+        if (credits == null) {
+            CreditDAO dao = new CreditDAO();
+            credits = new BatchLoader<>(ids -> dao.findByIds(ids, this));
+        }
+        return credits;
+    }
+
+    public BatchLoader<Integer, Purchase> sales() {
+        if (sales == null) {
+            PurchaseDAO dao = new PurchaseDAO();
+            sales = new BatchLoader<>(ids -> dao.findByIds(ids, this));
+        }
+        return sales;
+    }
+
+    /**
+     * Resuelve todas las asociaciones pendientes. Cargar un tipo puede
+     * registrar llaves de otro (cuota -> crédito -> venta -> cliente/usuario), por eso
+     * se repite hasta que no quede nada pendiente.
+     */
+    public void dispatchAll() {
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            progress |= dispatch(credits);
+            progress |= dispatch(sales);
+            progress |= dispatch(clients);
+            progress |= dispatch(users);
+        }
+    }
+
+    private static boolean dispatch(BatchLoader<?, ?> loader) {
+        if (loader == null || !loader.hasPending()) {
+            return false;
+        }
+        loader.dispatch();
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.tienda.dao;
+
+/**
+ * Dirección de navegación para la paginación por llave (keyset).
+ * NEXT y PREVIOUS buscan a partir de la fila cursor de la página actual.
+ */
+public enum PageDirection {
+    FIRST,
+    NEXT,
+    PREVIOUS,
+    LAST
+}
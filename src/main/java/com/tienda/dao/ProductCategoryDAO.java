@@ -2,12 +2,19 @@ package com.tienda.dao;
 
 import com.tienda.model.ProductCategory;
 import com.tienda.util.DatabaseConnection;
+import com.tienda.util.ReferenceCache;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ProductCategoryDAO {
+    private static final long CACHE_TTL_MS = Long.getLong("tienda.cache.referenceTtlMs", 600_000);
+
+    // Compartida por todas las instancias del DAO
+    private static final ReferenceCache<Integer, ProductCategory> CACHE = new ReferenceCache<>(
+            "categorías", ProductCategoryDAO::loadAll, ProductCategory::getId, CACHE_TTL_MS);
+
     private final DatabaseConnection dbConnection;
     
     public ProductCategoryDAO() {
@@ -31,6 +38,7 @@ public class ProductCategoryDAO {
                 if (rs.next()) {
                     category.setId(rs.getInt(1));
                 }
+                CACHE.invalidate();
                 return true;
             }
             
@@ -41,62 +49,45 @@ public class ProductCategoryDAO {
     }
     
     public ProductCategory findById(int id) {
-        String sql = "SELECT * FROM product_categories WHERE id = ?";
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToCategory(rs);
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error buscando categoría: " + e.getMessage());
-        }
-        return null;
+        return CACHE.get(id);
     }
     
     public ProductCategory findByName(String name) {
-        String sql = "SELECT * FROM product_categories WHERE name = ?";
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToCategory(rs);
+        for (ProductCategory category : CACHE.getAll()) {
+            if (category.getName().equals(name)) {
+                return category;
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error buscando categoría por nombre: " + e.getMessage());
         }
         return null;
     }
     
     public List<ProductCategory> findAll() {
+        return CACHE.getAll();
+    }
+    
+    /**
+     * Fuerza la recarga de la caché (por ejemplo tras editar categorías por fuera del DAO)
+     */
+    public static void invalidateCache() {
+        CACHE.invalidate();
+    }
+    
+    private static List<ProductCategory> loadAll() throws SQLException {
         List<ProductCategory> categories = new ArrayList<>();
         String sql = "SELECT * FROM product_categories";
         
-        try (Connection conn = dbConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 categories.add(mapResultSetToCategory(rs));
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo todas las categorías: " + e.getMessage());
         }
         return categories;
     }
     
-    private ProductCategory mapResultSetToCategory(ResultSet rs) throws SQLException {
+    private static ProductCategory mapResultSetToCategory(ResultSet rs) throws SQLException {
         ProductCategory category = new ProductCategory();
         category.setId(rs.getInt("id"));
         category.setName(rs.getString("name"));
@@ -3,13 +3,27 @@ package com.tienda.dao;
 import com.tienda.model.Product;
 import com.tienda.model.ProductCategory;
 import com.tienda.model.dtos.InventoryItemDTO;
+import com.tienda.model.dtos.ProductFilterDTO;
 import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class ProductDAO {
+    private static final long INDEX_TTL_MS = Long.getLong("tienda.cache.productTtlMs", 300_000);
+
+    // Compartido por todas las instancias del DAO
+    private static final ProductIndex INDEX = new ProductIndex(ProductDAO::loadAll, INDEX_TTL_MS);
+
+    private static final String SELECT_PRODUCTS = """
+            SELECT p.*, pc.name as category_name, pc.iva, pc.utility
+            FROM products p
+            INNER JOIN product_categories pc ON p.category_id = pc.id
+            """;
+
     private final DatabaseConnection dbConnection;
     // private final ProductCategoryDAO categoryDAO;
 
@@ -18,33 +32,23 @@ public class ProductDAO {
         // this.categoryDAO = new ProductCategoryDAO();
     }
 
+    /**
+     * Búsqueda del punto de venta: se responde desde el índice en memoria. Si
+     * el código no está (producto creado o recodificado en otra terminal), se
+     * consulta la base de datos y el producto se agrega al índice.
+     */
     public Product findByCode(String code) {
-        String sql = """
-                SELECT p.*, pc.name as category_name, pc.iva, pc.utility
-                FROM products p
-                INNER JOIN product_categories pc ON p.category_id = pc.id
-                WHERE p.code = ?
-                """;
-
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, code);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return mapResultSetToProduct(rs);
+        if (INDEX.ensureLoaded()) {
+            Product product = INDEX.byCode(code);
+            if (product != null) {
+                return product;
             }
-
-        } catch (SQLException e) {
-            System.err.println("Error buscando producto por código: " + e.getMessage());
         }
-
-        return null;
+        return queryAndIndex("p.code = ?", code, "Error buscando producto por código: ");
     }
 
     // Método auxiliar para mapear ResultSet a Product (si no existe)
-    private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
+    private static Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setId(rs.getInt("id"));
         product.setCode(rs.getString("code"));
@@ -85,6 +89,7 @@ public class ProductDAO {
                 if (rs.next()) {
                     product.setId(rs.getInt(1));
                 }
+                refreshIndex(conn, List.of(product.getId()));
                 return true;
             }
 
@@ -95,17 +100,32 @@ public class ProductDAO {
     }
 
     public Product findById(int id) {
-        String sql = """
-                SELECT p.*, pc.name as category_name, pc.iva, pc.utility
-                FROM products p
-                INNER JOIN product_categories pc ON p.category_id = pc.id
-                WHERE p.id = ?
-                """;
+        if (INDEX.ensureLoaded()) {
+            Product product = INDEX.byId(id);
+            if (product != null) {
+                return product;
+            }
+        }
+        return queryAndIndex("p.id = ?", id, "Error buscando producto: ");
+    }
+
+    /**
+     * Un fallo del índice es raro y cuesta una consulta; lo encontrado se
+     * agrega para que las siguientes búsquedas no vuelvan a la base de datos
+     */
+    private Product queryAndIndex(String condition, Object value, String errorMessage) {
+        Product product = queryOne(condition, value, errorMessage);
+        if (product != null) {
+            INDEX.putAll(List.of(product));
+        }
+        return product;
+    }
 
+    private Product queryOne(String condition, Object value, String errorMessage) {
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(SELECT_PRODUCTS + "WHERE " + condition)) {
 
-            stmt.setInt(1, id);
+            stmt.setObject(1, value);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
@@ -113,7 +133,7 @@ public class ProductDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error buscando producto: " + e.getMessage());
+            System.err.println(errorMessage + e.getMessage());
         }
         return null;
     }
@@ -303,34 +323,114 @@ public class ProductDAO {
  * Obtiene todos los productos
  */
 public List<Product> findAll() {
-    String sql = """
-        SELECT p.*, 
-               pc.id as category_id,
-               pc.name as category_name, 
-               pc.iva, 
-               pc.utility 
-        FROM products p 
-        INNER JOIN product_categories pc ON p.category_id = pc.id 
-        ORDER BY p.id DESC
-        """;
-    
+    if (INDEX.ensureLoaded()) {
+        return INDEX.all();
+    }
+    try {
+        return loadAll();
+    } catch (SQLException e) {
+        System.err.println("Error obteniendo todos los productos: " + e.getMessage());
+        return new ArrayList<>();
+    }
+}
+
+/**
+ * Ids de los productos que cumplen los filtros de la gestión de productos, del
+ * más reciente al más antiguo. El texto se busca en el índice de trigramas; la
+ * pantalla solo trae los productos de la página que muestra.
+ */
+public int[] searchIds(ProductFilterDTO filter) {
+    if (INDEX.ensureLoaded()) {
+        return INDEX.search(filter.getText(), product -> matchesFilter(product, filter));
+    }
+    String text = filter.getText() == null ? "" : filter.getText().toLowerCase().trim();
+    return findAll().stream()
+        .filter(product -> text.isEmpty()
+            || product.getCode().toLowerCase().contains(text)
+            || product.getName().toLowerCase().contains(text)
+            || (product.getDescription() != null && product.getDescription().toLowerCase().contains(text)))
+        .filter(product -> matchesFilter(product, filter))
+        .mapToInt(Product::getId)
+        .toArray();
+}
+
+private static boolean matchesFilter(Product product, ProductFilterDTO filter) {
+    Integer categoryId = filter.getCategoryId();
+    if (categoryId != null && categoryId != 0
+            && (product.getCategory() == null || product.getCategory().getId() != categoryId)) {
+        return false;
+    }
+
+    String stockFilter = filter.getStockFilter();
+    if (stockFilter == null) {
+        return true;
+    }
+    return switch (stockFilter) {
+        case "Con Stock" -> product.getStock() > 0;
+        case "Sin Stock" -> product.getStock() == 0;
+        case "Stock Bajo" -> product.getStock() > 0 && product.getStock() < 10;
+        default -> true;
+    };
+}
+
+private static List<Product> loadAll() throws SQLException {
     List<Product> products = new ArrayList<>();
     
-    try (Connection conn = dbConnection.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(sql);
+    try (Connection conn = DatabaseConnection.getInstance().getConnection();
+         PreparedStatement stmt = conn.prepareStatement(SELECT_PRODUCTS + "ORDER BY p.id DESC");
          ResultSet rs = stmt.executeQuery()) {
         
         while (rs.next()) {
             products.add(mapResultSetToProduct(rs));
         }
-        
-    } catch (SQLException e) {
-        System.err.println("Error obteniendo todos los productos: " + e.getMessage());
     }
     
     return products;
 }
 
+/**
+ * Vuelve a leer los productos indicados y los actualiza en el índice.
+ * Lo usa quien cambie productos por fuera de este DAO (por ejemplo el
+ * descuento de stock de una venta), ya con su conexión devuelta al pool.
+ */
+public static void refreshIndex(Collection<Integer> productIds) {
+    if (productIds.isEmpty()) {
+        return;
+    }
+    try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+        refreshIndex(conn, productIds);
+    } catch (SQLException e) {
+        System.err.println("Error actualizando índice de productos: " + e.getMessage());
+    }
+}
+
+/**
+ * Igual que refreshIndex(Collection), pero leyendo con la conexión que ya
+ * tiene quien escribió: pedir una segunda conexión mientras se retiene la
+ * primera puede agotar el pool cuando hay varias escrituras a la vez.
+ */
+private static void refreshIndex(Connection conn, Collection<Integer> productIds) {
+    String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+    List<Product> products = new ArrayList<>();
+    
+    try (PreparedStatement stmt = conn.prepareStatement(SELECT_PRODUCTS + "WHERE p.id IN (" + placeholders + ")")) {
+        int index = 1;
+        for (int id : productIds) {
+            stmt.setInt(index++, id);
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                products.add(mapResultSetToProduct(rs));
+            }
+        }
+        INDEX.putAll(products);
+        
+    } catch (SQLException e) {
+        // La escritura ya quedó hecha; solo el índice se queda atrás hasta la próxima recarga
+        System.err.println("Error actualizando índice de productos: " + e.getMessage());
+    }
+}
+
 /**
  * Inserta un nuevo producto
  */
@@ -358,6 +458,7 @@ public boolean insert(Product product) {
             if (generatedKeys.next()) {
                 product.setId(generatedKeys.getInt(1));
             }
+            refreshIndex(conn, List.of(product.getId()));
             return true;
         }
         
@@ -397,6 +498,9 @@ public boolean update(Product product) {
         stmt.setInt(8, product.getId());
         
         int rowsAffected = stmt.executeUpdate();
+        if (rowsAffected > 0) {
+            refreshIndex(conn, List.of(product.getId()));
+        }
         return rowsAffected > 0;
         
     } catch (SQLException e) {
@@ -417,6 +521,9 @@ public boolean delete(int id) {
         
         stmt.setInt(1, id);
         int rowsAffected = stmt.executeUpdate();
+        if (rowsAffected > 0) {
+            INDEX.remove(id);
+        }
         return rowsAffected > 0;
         
     } catch (SQLException e) {
@@ -439,6 +546,9 @@ public boolean updateStock(int productId, int newStock) {
         stmt.setInt(2, productId);
         
         int rowsAffected = stmt.executeUpdate();
+        if (rowsAffected > 0) {
+            refreshIndex(conn, List.of(productId));
+        }
         return rowsAffected > 0;
         
     } catch (SQLException e) {
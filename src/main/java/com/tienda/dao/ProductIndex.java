@@ -0,0 +1,233 @@
+package com.tienda.dao;
+
+import com.tienda.model.Product;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Índice en memoria del catálogo para las búsquedas del punto de venta.
+ *
+ * Por id es un arreglo indexado directamente con el id (los ids de identidad
+ * son densos); por código, un mapa de código a id. Se carga completo una vez
+ * y ProductDAO lo actualiza en cada escritura. Los cambios de otras terminales
+ * llegan con una recarga en segundo plano cuando vence el TTL: las búsquedas
+ * siguen respondiendo con la copia anterior mientras tanto. La búsqueda por
+ * texto usa un índice de trigramas (ProductSearchIndex) que se mantiene junto
+ * con la copia.
+ *
+ * Devuelve copias, así quien recibe un producto puede modificarlo.
+ */
+class ProductIndex {
+
+    /**
+     * Consulta que trae todo el catálogo
+     */
+    @FunctionalInterface
+    interface Loader {
+        List<Product> loadAll() throws SQLException;
+    }
+
+    private final Loader loader;
+    private final long ttlMillis;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    // Escrituras locales; una recarga que se cruza con una escritura se descarta
+    private long writes;
+
+    ProductIndex(Loader loader, long ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Carga el índice si todavía no está. Devuelve false si no se pudo cargar,
+     * en cuyo caso el llamador debe consultar la base de datos.
+     */
+    boolean ensureLoaded() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    try {
+                        snapshot = Snapshot.of(loader.loadAll());
+                    } catch (SQLException e) {
+                        System.err.println("Error cargando índice de productos: " + e.getMessage());
+                        return false;
+                    }
+                }
+            }
+        } else if (System.currentTimeMillis() - s.loadedAt() >= ttlMillis) {
+            reloadInBackground();
+        }
+        return true;
+    }
+
+    Product byId(int id) {
+        return copy(snapshot.get(id));
+    }
+
+    Product byCode(String code) {
+        Snapshot s = snapshot;
+        Integer id = s.idsByCode().get(code);
+        return id != null ? copy(s.get(id)) : null;
+    }
+
+    /**
+     * Todo el catálogo, del id más reciente al más antiguo
+     */
+    List<Product> all() {
+        Product[] byId = snapshot.byId();
+        List<Product> products = new ArrayList<>();
+        for (int id = byId.length - 1; id >= 0; id--) {
+            if (byId[id] != null) {
+                products.add(copy(byId[id]));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Ids de los productos que contienen el texto en código, nombre o
+     * descripción y cumplen el filtro, del más reciente al más antiguo
+     */
+    int[] search(String text, Predicate<Product> filter) {
+        Snapshot s = snapshot;
+        return s.search().search(text, id -> {
+            Product product = s.get(id);
+            return product != null && filter.test(product);
+        });
+    }
+
+    /**
+     * Agrega o reemplaza productos tras una escritura. Solo copia el arreglo
+     * de ids; el mapa de códigos se rehace únicamente si cambió algún código.
+     */
+    synchronized void putAll(List<Product> products) {
+        writes++;
+        Snapshot s = snapshot;
+        if (s == null || products.isEmpty()) {
+            return;
+        }
+
+        int maxId = s.byId().length - 1;
+        for (Product product : products) {
+            maxId = Math.max(maxId, product.getId());
+        }
+        Product[] byId = Arrays.copyOf(s.byId(), maxId + 1);
+        Map<String, Integer> idsByCode = s.idsByCode();
+        boolean codesChanged = false;
+
+        for (Product product : products) {
+            Product previous = byId[product.getId()];
+            byId[product.getId()] = copy(product);
+            if (previous == null || !previous.getCode().equals(product.getCode())) {
+                if (!codesChanged) {
+                    idsByCode = new HashMap<>(idsByCode);
+                    codesChanged = true;
+                }
+                if (previous != null) {
+                    idsByCode.remove(previous.getCode());
+                }
+                idsByCode.put(product.getCode(), product.getId());
+            }
+        }
+        if (codesChanged) {
+            idsByCode = Collections.unmodifiableMap(idsByCode);
+        }
+        for (Product product : products) {
+            s.search().put(product);
+        }
+        snapshot = new Snapshot(byId, idsByCode, s.search(), s.loadedAt());
+    }
+
+    synchronized void remove(int id) {
+        writes++;
+        Snapshot s = snapshot;
+        if (s == null || s.get(id) == null) {
+            return;
+        }
+        Product[] byId = s.byId().clone();
+        Map<String, Integer> idsByCode = new HashMap<>(s.idsByCode());
+        idsByCode.remove(byId[id].getCode());
+        byId[id] = null;
+        s.search().remove(id);
+        snapshot = new Snapshot(byId, Collections.unmodifiableMap(idsByCode), s.search(), s.loadedAt());
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().name("recarga-productos").start(() -> {
+            try {
+                long writesBefore;
+                synchronized (this) {
+                    writesBefore = writes;
+                }
+                Snapshot loaded = Snapshot.of(loader.loadAll());
+                synchronized (this) {
+                    // Si hubo escrituras durante la consulta, la copia local es más nueva
+                    if (writes == writesBefore) {
+                        snapshot = loaded;
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error recargando índice de productos: " + e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    private static Product copy(Product product) {
+        if (product == null) {
+            return null;
+        }
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setCode(product.getCode());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setStock(product.getStock());
+        copy.setAcquisitionValue(product.getAcquisitionValue());
+        copy.setSaleValue(product.getSaleValue());
+        copy.setCategory(product.getCategory());
+        return copy;
+    }
+
+    /**
+     * Contenido inmutable del índice; las escrituras publican uno nuevo. El
+     * índice de texto se actualiza en el lugar y pasa de una copia a la otra.
+     */
+    private record Snapshot(Product[] byId, Map<String, Integer> idsByCode,
+                            ProductSearchIndex search, long loadedAt) {
+
+        static Snapshot of(List<Product> products) {
+            int maxId = 0;
+            for (Product product : products) {
+                maxId = Math.max(maxId, product.getId());
+            }
+            Product[] byId = new Product[maxId + 1];
+            Map<String, Integer> idsByCode = new HashMap<>(products.size() * 2);
+            for (Product product : products) {
+                byId[product.getId()] = product;
+                idsByCode.put(product.getCode(), product.getId());
+            }
+            return new Snapshot(byId, Collections.unmodifiableMap(idsByCode),
+                    ProductSearchIndex.of(products), System.currentTimeMillis());
+        }
+
+        Product get(int id) {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.tienda.dao;
+
+import com.tienda.model.Product;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice invertido de trigramas sobre código, nombre y descripción para la
+ * búsqueda mientras se escribe.
+ *
+ * Cada trigrama apunta a la lista ordenada de ids de productos que lo
+ * contienen. Una búsqueda intersecta las listas de los trigramas del texto,
+ * empezando por la más corta, y solo confirma con contains() los candidatos
+ * que quedan. Los textos ya se guardan en minúsculas para no convertirlos en
+ * cada búsqueda. Lo mantiene ProductIndex en cada escritura.
+ */
+class ProductSearchIndex {
+
+    // Separa los campos; ningún trigrama que lo contenga se indexa
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] texts = new String[0];
+
+    static ProductSearchIndex of(List<Product> products) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        // En orden de id, así cada lista se llena solo agregando al final
+        products.stream()
+                .sorted((a, b) -> Integer.compare(a.getId(), b.getId()))
+                .forEach(index::put);
+        return index;
+    }
+
+    /**
+     * Agrega o reemplaza un producto. Solo se tocan los trigramas que cambian,
+     * así un cambio de stock o precio no modifica las listas.
+     */
+    void put(Product product) {
+        int id = product.getId();
+        String text = normalize(product);
+
+        lock.writeLock().lock();
+        try {
+            String previous = id < texts.length ? texts[id] : null;
+            if (text.equals(previous)) {
+                return;
+            }
+            long[] oldTrigrams = previous != null ? trigrams(previous) : new long[0];
+            long[] newTrigrams = trigrams(text);
+
+            for (long trigram : oldTrigrams) {
+                if (Arrays.binarySearch(newTrigrams, trigram) < 0) {
+                    Postings list = postings.get(trigram);
+                    if (list != null && list.remove(id) && list.size == 0) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+            for (long trigram : newTrigrams) {
+                if (Arrays.binarySearch(oldTrigrams, trigram) < 0) {
+                    postings.computeIfAbsent(trigram, k -> new Postings()).add(id);
+                }
+            }
+
+            if (id >= texts.length) {
+                texts = Arrays.copyOf(texts, Math.max(id + 1, texts.length * 2));
+            }
+            texts[id] = text;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id >= texts.length || texts[id] == null) {
+                return;
+            }
+            for (long trigram : trigrams(texts[id])) {
+                Postings list = postings.get(trigram);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+            texts[id] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de los productos cuyo código, nombre o descripción contienen el
+     * texto y que cumplen el filtro, del id más reciente al más antiguo
+     */
+    int[] search(String query, IntPredicate filter) {
+        String needle = query == null ? "" : query.toLowerCase(Locale.ROOT).trim();
+
+        lock.readLock().lock();
+        try {
+            int[] candidates;
+            if (needle.length() < 3) {
+                // Sin trigramas que buscar: se recorren los textos ya normalizados
+                candidates = null;
+            } else {
+                candidates = intersect(trigrams(needle));
+                if (candidates.length == 0) {
+                    return candidates;
+                }
+            }
+
+            int[] result = new int[candidates != null ? candidates.length : texts.length];
+            int count = 0;
+            if (candidates != null) {
+                for (int i = candidates.length - 1; i >= 0; i--) {
+                    int id = candidates[i];
+                    if (texts[id].contains(needle) && filter.test(id)) {
+                        result[count++] = id;
+                    }
+                }
+            } else {
+                for (int id = texts.length - 1; id >= 0; id--) {
+                    String text = texts[id];
+                    if (text != null && (needle.isEmpty() || text.contains(needle)) && filter.test(id)) {
+                        result[count++] = id;
+                    }
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersección de las listas de los trigramas, de la más corta a la más larga
+     */
+    private int[] intersect(long[] trigrams) {
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] current = Arrays.copyOf(lists[0].ids, lists[0].size);
+        for (int l = 1; l < lists.length && current.length > 0; l++) {
+            Postings list = lists[l];
+            int count = 0;
+            int from = 0;
+            for (int id : current) {
+                int pos = Arrays.binarySearch(list.ids, from, list.size, id);
+                if (pos >= 0) {
+                    current[count++] = id;
+                    from = pos + 1;
+                } else {
+                    from = -pos - 1;
+                }
+            }
+            current = Arrays.copyOf(current, count);
+        }
+        return current;
+    }
+
+    private static String normalize(Product product) {
+        String description = product.getDescription() != null ? product.getDescription() : "";
+        return (product.getCode() + FIELD_SEPARATOR + product.getName() + FIELD_SEPARATOR + description)
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigramas distintos del texto, ordenados. Cada uno se empaca en un long
+     * con los tres caracteres de 16 bits.
+     */
+    private static long[] trigrams(String text) {
+        int n = text.length() - 2;
+        if (n <= 0) {
+            return new long[0];
+        }
+        long[] result = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            result[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(result, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Lista ordenada de ids. Los productos nuevos tienen el id más alto, así
+     * que agregarlos es O(1); solo las ediciones de texto desplazan elementos.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
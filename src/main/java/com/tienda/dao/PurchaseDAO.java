@@ -3,22 +3,39 @@ package com.tienda.dao;
 import com.tienda.model.Client;
 import com.tienda.model.Purchase;
 import com.tienda.model.User;
+import com.tienda.model.dtos.SaleFilterDTO;
+import com.tienda.model.dtos.SalesSummaryDTO;
 import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PurchaseDAO {
+    // Columnas y FROM compartidos por las consultas del historial de ventas.
+    // El conteo de líneas de detalle viaja con cada venta para que la tabla no
+    // tenga que consultarlo celda por celda.
+    private static final String FILTERED_SALES_COLUMNS = """
+            p.*,
+                   c.name as client_name, c.document_number as client_document,
+                   u.name as user_name, u.email as user_username,
+                   (SELECT COUNT(*) FROM sale_details sd WHERE sd.sale_id = p.id) as product_count
+            """;
+    private static final String FILTERED_SALES_FROM = """
+            FROM sales p
+            LEFT JOIN clients c ON p.client_id = c.id
+            LEFT JOIN users u ON p.user_id = u.id
+            WHERE 1=1
+            """;
+
     private final DatabaseConnection dbConnection;
-    private final ClientDAO clientDAO;
-    private final UserDAO userDAO;
 
     public PurchaseDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
-        this.clientDAO = new ClientDAO();
-        this.userDAO = new UserDAO();
     }
 
     public List<Purchase> findWithFilters(
@@ -31,44 +48,163 @@ public class PurchaseDAO {
             Double minAmount,
             Double maxAmount) {
 
-        StringBuilder sql = new StringBuilder("""
-                SELECT p.*,
-                       c.name as client_name, c.document_number as client_document,
-                       u.name as user_name, u.email as user_username
-                FROM sales p
-                LEFT JOIN clients c ON p.client_id = c.id
-                LEFT JOIN users u ON p.user_id = u.id
-                WHERE 1=1
-                """);
+        SaleFilterDTO filter = new SaleFilterDTO();
+        filter.setStartDate(startDate);
+        filter.setEndDate(endDate);
+        filter.setSaleType(saleType);
+        filter.setClientName(clientName);
+        filter.setUserName(userName);
+        filter.setSaleId(saleId);
+        filter.setMinAmount(minAmount);
+        filter.setMaxAmount(maxAmount);
+
+        StringBuilder sql = new StringBuilder("SELECT " + FILTERED_SALES_COLUMNS + FILTERED_SALES_FROM);
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, filter);
+        sql.append(" ORDER BY p.date DESC, p.id DESC");
+
+        List<Purchase> purchases = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                purchases.add(mapFilteredRow(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error buscando ventas con filtros: " + e.getMessage());
+        }
+
+        return purchases;
+    }
+
+    /**
+     * Obtiene una página de ventas filtradas, ordenadas por (fecha DESC, id DESC).
+     *
+     * Usa paginación por llave: NEXT y PREVIOUS buscan a partir de la fila
+     * cursor (la última o la primera de la página actual) en lugar de usar
+     * OFFSET, así el costo no crece con el número de página. LAST devuelve las
+     * últimas pageSize filas del resultado.
+     */
+    public List<Purchase> findPage(SaleFilterDTO filter, PageDirection direction, Purchase cursor, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT TOP (?) " + FILTERED_SALES_COLUMNS + FILTERED_SALES_FROM);
+        List<Object> params = new ArrayList<>();
+        params.add(pageSize);
+        appendFilters(sql, params, filter);
+
+        // Las páginas hacia atrás se leen en orden ascendente y luego se invierten
+        boolean backwards = direction == PageDirection.PREVIOUS || direction == PageDirection.LAST;
+
+        if (cursor != null && direction == PageDirection.NEXT) {
+            sql.append(" AND (p.date < ? OR (p.date = ? AND p.id < ?))");
+            params.add(Date.valueOf(cursor.getDate()));
+            params.add(Date.valueOf(cursor.getDate()));
+            params.add(cursor.getId());
+        } else if (cursor != null && direction == PageDirection.PREVIOUS) {
+            sql.append(" AND (p.date > ? OR (p.date = ? AND p.id > ?))");
+            params.add(Date.valueOf(cursor.getDate()));
+            params.add(Date.valueOf(cursor.getDate()));
+            params.add(cursor.getId());
+        }
+
+        sql.append(backwards ? " ORDER BY p.date ASC, p.id ASC" : " ORDER BY p.date DESC, p.id DESC");
+
+        List<Purchase> purchases = new ArrayList<>();
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                purchases.add(mapFilteredRow(rs));
+            }
 
+        } catch (SQLException e) {
+            System.err.println("Error obteniendo página de ventas: " + e.getMessage());
+        }
+
+        if (backwards) {
+            Collections.reverse(purchases);
+        }
+        return purchases;
+    }
+
+    /**
+     * Número de ventas y montos (total, contado y crédito) que cumplen los
+     * filtros, en un solo agregado con el mismo WHERE que las páginas. El
+     * número de ventas también da el número de páginas.
+     */
+    public SalesSummaryDTO summarize(SaleFilterDTO filter) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT COUNT(*) AS total_sales,
+                       COALESCE(SUM(p.total), 0) AS total_amount,
+                       COALESCE(SUM(CASE WHEN p.sale_type = 'COUNT' THEN p.total ELSE 0 END), 0) AS cash_sales,
+                       COALESCE(SUM(CASE WHEN p.sale_type = 'CREDIT' THEN p.total ELSE 0 END), 0) AS credit_sales
+                """ + FILTERED_SALES_FROM);
         List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, filter);
+
+        SalesSummaryDTO summary = new SalesSummaryDTO();
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    summary.setTotalSales(rs.getInt("total_sales"));
+                    summary.setTotalAmount(rs.getDouble("total_amount"));
+                    summary.setCashSales(rs.getDouble("cash_sales"));
+                    summary.setCreditSales(rs.getDouble("credit_sales"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error resumiendo ventas con filtros: " + e.getMessage());
+        }
+        return summary;
+    }
 
-        if (startDate != null) {
+    /**
+     * Agrega al WHERE las condiciones de los filtros del historial de ventas
+     */
+    private void appendFilters(StringBuilder sql, List<Object> params, SaleFilterDTO filter) {
+        if (filter.getStartDate() != null) {
             sql.append(" AND p.date >= ?");
-            params.add(Date.valueOf(startDate));
+            params.add(Date.valueOf(filter.getStartDate()));
         }
 
-        if (endDate != null) {
+        if (filter.getEndDate() != null) {
             sql.append(" AND p.date <= ?");
-            params.add(Date.valueOf(endDate));
+            params.add(Date.valueOf(filter.getEndDate()));
         }
 
+        String saleType = filter.getSaleType();
         if (saleType != null && !"TODOS".equals(saleType)) {
             String dbType = "CONTADO".equals(saleType) ? "COUNT" : "CREDIT";
             sql.append(" AND p.sale_type = ?");
             params.add(dbType);
         }
 
+        String clientName = filter.getClientName();
         if (clientName != null && !clientName.isEmpty()) {
             sql.append(" AND c.name LIKE ?");
             params.add("%" + clientName + "%");
         }
 
+        String userName = filter.getUserName();
         if (userName != null && !userName.isEmpty()) {
             sql.append(" AND u.name LIKE ?");
             params.add("%" + userName + "%");
         }
 
+        String saleId = filter.getSaleId();
         if (saleId != null && !saleId.isEmpty()) {
             try {
                 int id = Integer.parseInt(saleId);
@@ -79,58 +215,46 @@ public class PurchaseDAO {
             }
         }
 
-        if (minAmount != null) {
+        if (filter.getMinAmount() != null) {
             sql.append(" AND p.total >= ?");
-            params.add(minAmount);
+            params.add(filter.getMinAmount());
         }
 
-        if (maxAmount != null) {
+        if (filter.getMaxAmount() != null) {
             sql.append(" AND p.total <= ?");
-            params.add(maxAmount);
+            params.add(filter.getMaxAmount());
         }
+    }
 
-        sql.append(" ORDER BY p.date DESC, p.id DESC");
-
-        List<Purchase> purchases = new ArrayList<>();
-
-        try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
-
-            for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
-            }
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Purchase purchase = new Purchase();
-                purchase.setId(rs.getInt("id"));
-                purchase.setDate(rs.getDate("date").toLocalDate());
-                purchase.setSaleType(rs.getString("sale_type"));
-                purchase.setSubtotal(rs.getDouble("subtotal"));
-                purchase.setIvaTotal(rs.getDouble("iva_total"));
-                purchase.setTotal(rs.getDouble("total"));
-
-                // Cliente
-                Client client = new Client();
-                client.setName(rs.getString("client_name"));
-                // client.setDocument(rs.getString("client_document"));
-                purchase.setClient(client);
-
-                // Usuario
-                User user = new User();
-                user.setName(rs.getString("user_name"));
-                // user.setUsername(rs.getString("user_username"));
-                purchase.setUser(user);
-
-                purchases.add(purchase);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error buscando ventas con filtros: " + e.getMessage());
+    private void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
         }
+    }
 
-        return purchases;
+    private Purchase mapFilteredRow(ResultSet rs) throws SQLException {
+        Purchase purchase = new Purchase();
+        purchase.setId(rs.getInt("id"));
+        purchase.setDate(rs.getDate("date").toLocalDate());
+        purchase.setSaleType(rs.getString("sale_type"));
+        purchase.setSubtotal(rs.getDouble("subtotal"));
+        purchase.setIvaTotal(rs.getDouble("iva_total"));
+        purchase.setTotal(rs.getDouble("total"));
+        purchase.setProductCount(rs.getInt("product_count"));
+
+        // Cliente
+        Client client = new Client();
+        client.setName(rs.getString("client_name"));
+        // client.setDocument(rs.getString("client_document"));
+        purchase.setClient(client);
+
+        // Usuario
+        User user = new User();
+        user.setName(rs.getString("user_name"));
+        // user.setUsername(rs.getString("user_username"));
+        purchase.setUser(user);
+
+        return purchase;
     }
 
     public boolean save(Purchase sale) {
@@ -165,6 +289,8 @@ public class PurchaseDAO {
 
     public Purchase findById(int id) {
         String sql = "SELECT * FROM sales WHERE id = ?";
+        LoadContext ctx = new LoadContext();
+        Purchase sale = null;
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -173,42 +299,79 @@ public class PurchaseDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToSale(rs);
+                sale = mapResultSetToSale(rs, ctx);
             }
 
         } catch (SQLException e) {
             System.err.println("Error buscando venta: " + e.getMessage());
         }
-        return null;
+        ctx.dispatchAll();
+        return sale;
+    }
+
+    /**
+     * Carga varias ventas con una sola consulta IN; clientes y usuarios se
+     * registran en el contexto y se resuelven en el siguiente dispatch
+     */
+    Map<Integer, Purchase> findByIds(List<Integer> ids, LoadContext ctx) {
+        Map<Integer, Purchase> sales = new HashMap<>();
+        if (ids.isEmpty()) {
+            return sales;
+        }
+        String sql = "SELECT * FROM sales WHERE id IN (" + BatchLoader.inPlaceholders(ids.size()) + ")";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            BatchLoader.bindIds(stmt, ids);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Purchase sale = mapResultSetToSale(rs, ctx);
+                sales.put(sale.getId(), sale);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error buscando ventas por lote: " + e.getMessage());
+        }
+        return sales;
     }
 
     public List<Purchase> findAll() {
         List<Purchase> sales = new ArrayList<>();
         String sql = "SELECT * FROM sales ORDER BY date DESC";
+        LoadContext ctx = new LoadContext();
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql);
                 ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                sales.add(mapResultSetToSale(rs));
+                sales.add(mapResultSetToSale(rs, ctx));
             }
 
         } catch (SQLException e) {
             System.err.println("Error obteniendo todas las ventas: " + e.getMessage());
         }
+        ctx.dispatchAll();
         return sales;
     }
 
     // Consulta específica: Total de ventas por mes
     public double getTotalSalesByMonth(int year, int month) {
-        String sql = "SELECT COALESCE(SUM(total), 0) as total FROM sales WHERE YEAR(date) = ? AND MONTH(date) = ?";
+        // Rango [primer día del mes, primer día del siguiente) sobre el resumen diario
+        String sql = """
+                SELECT COALESCE(SUM(total), 0) as total
+                FROM sales_daily_rollup
+                WHERE category_id = 0 AND sale_date >= ? AND sale_date < ?
+                """;
+        LocalDate firstDay = LocalDate.of(year, month, 1);
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, year);
-            stmt.setInt(2, month);
+            stmt.setDate(1, Date.valueOf(firstDay));
+            stmt.setDate(2, Date.valueOf(firstDay.plusMonths(1)));
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
@@ -225,10 +388,10 @@ public class PurchaseDAO {
     public Object[] getSalesCountByTypeAndPeriod(LocalDate startDate, LocalDate endDate) {
         String sql = """
                 SELECT
-                    SUM(CASE WHEN sale_type = 'CONTADO' THEN 1 ELSE 0 END) as contado,
-                    SUM(CASE WHEN sale_type = 'CREDITO' THEN 1 ELSE 0 END) as credito
-                FROM sales
-                WHERE date BETWEEN ? AND ?
+                    COALESCE(SUM(CASE WHEN sale_type = 'COUNT' THEN sale_count ELSE 0 END), 0) as contado,
+                    COALESCE(SUM(CASE WHEN sale_type = 'CREDIT' THEN sale_count ELSE 0 END), 0) as credito
+                FROM sales_daily_rollup
+                WHERE category_id = 0 AND sale_date BETWEEN ? AND ?
                 """;
 
         try (Connection conn = dbConnection.getConnection();
@@ -251,7 +414,7 @@ public class PurchaseDAO {
         return new Object[] { 0, 0 };
     }
 
-    private Purchase mapResultSetToSale(ResultSet rs) throws SQLException {
+    private Purchase mapResultSetToSale(ResultSet rs, LoadContext ctx) throws SQLException {
         Purchase sale = new Purchase();
         sale.setId(rs.getInt("id"));
         sale.setDate(rs.getDate("date").toLocalDate());
@@ -260,9 +423,9 @@ public class PurchaseDAO {
         sale.setIvaTotal(rs.getDouble("iva_total"));
         sale.setTotal(rs.getDouble("total"));
 
-        // Cargar cliente y usuario
-        sale.setClient(clientDAO.findById(rs.getInt("client_id")));
-        sale.setUser(userDAO.findById(rs.getInt("user_id")));
+        // Cargar cliente y usuario (por lotes)
+        ctx.clients().load(rs.getInt("client_id"), sale::setClient);
+        ctx.users().load(rs.getInt("user_id"), sale::setUser);
 
         return sale;
     }
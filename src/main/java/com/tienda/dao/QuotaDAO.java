@@ -9,11 +9,11 @@ import java.util.List;
 
 public class QuotaDAO {
     private final DatabaseConnection dbConnection;
-    private final CreditDAO creditDAO;
+    private final DelinquencySummaryDAO summaryDAO;
     
     public QuotaDAO() {
         this.dbConnection = DatabaseConnection.getInstance();
-        this.creditDAO = new CreditDAO();
+        this.summaryDAO = new DelinquencySummaryDAO();
     }
     
 public List<Quota> findByCreditId(int creditId) {
@@ -67,16 +67,25 @@ public boolean updateQuota(Quota quota) {
         WHERE id = ?
         """;
     
-    try (Connection conn = dbConnection.getConnection();
-         PreparedStatement stmt = conn.prepareStatement(sql)) {
-        
-        stmt.setDouble(1, quota.getPayedValue());
-        stmt.setDate(2, Date.valueOf(quota.getPayedAt()));
-        stmt.setString(3, quota.getState());
-        stmt.setInt(4, quota.getId());
-        
-        int rowsAffected = stmt.executeUpdate();
-        return rowsAffected > 0;
+    try (Connection conn = dbConnection.getConnection()) {
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setDouble(1, quota.getPayedValue());
+            stmt.setDate(2, Date.valueOf(quota.getPayedAt()));
+            stmt.setString(3, quota.getState());
+            stmt.setInt(4, quota.getId());
+            
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                refreshSummaryForQuota(conn, quota.getId());
+            }
+            conn.commit();
+            return updated;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
         
     } catch (SQLException e) {
         System.err.println("Error actualizando cuota: " + e.getMessage());
@@ -122,6 +131,36 @@ public boolean updateQuota(Quota quota) {
         return false;
     }
     
+    /**
+     * Inserta todo el plan de cuotas en un solo lote, con la conexión del
+     * llamador. Los ids generados no se leen: las cuotas se consultan por crédito.
+     */
+    public void saveAll(Connection conn, List<Quota> quotas) throws SQLException {
+        String sql = "INSERT INTO quotas (quota_number, expiration_date, quota_value, payed_value, payed_at, state, credit_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Quota quota : quotas) {
+                stmt.setInt(1, quota.getQuotaNumber());
+                stmt.setDate(2, Date.valueOf(quota.getExpirationDate()));
+                stmt.setDouble(3, quota.getQuotaValue());
+                if (quota.getPayedValue() != null) {
+                    stmt.setDouble(4, quota.getPayedValue());
+                } else {
+                    stmt.setNull(4, Types.DOUBLE);
+                }
+                if (quota.getPayedAt() != null) {
+                    stmt.setDate(5, Date.valueOf(quota.getPayedAt()));
+                } else {
+                    stmt.setNull(5, Types.DATE);
+                }
+                stmt.setString(6, quota.getState());
+                stmt.setInt(7, quota.getCredit().getId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
     // public List<Quota> findByCreditId(int creditId) {
     //     List<Quota> quotas = new ArrayList<>();
     //     String sql = "SELECT * FROM quotas WHERE credit_id = ? ORDER BY quota_number";
@@ -146,35 +185,48 @@ public boolean updateQuota(Quota quota) {
         List<Quota> quotas = new ArrayList<>();
         String sql = """
             SELECT * FROM quotas 
-            WHERE expiration_date < GETDATE() 
+            WHERE expiration_date < %s 
             AND payed_value IS NULL 
             AND state = 'PENDIENTE'
-            """;
+            """.formatted(dbConnection.getDialect().currentTimestamp());
+        LoadContext ctx = new LoadContext();
         
         try (Connection conn = dbConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                quotas.add(mapResultSetToQuota(rs));
+                quotas.add(mapResultSetToQuota(rs, ctx));
             }
             
         } catch (SQLException e) {
             System.err.println("Error obteniendo cuotas vencidas: " + e.getMessage());
         }
+        ctx.dispatchAll();
         return quotas;
     }
     
     public boolean payQuota(int quotaId, double amount) {
-        String sql = "UPDATE quotas SET payed_value = ?, payed_at = GETDATE(), state = 'PAGADA' WHERE id = ?";
+        String sql = "UPDATE quotas SET payed_value = ?, payed_at = " + dbConnection.getDialect().currentDate()
+                + ", state = 'PAGADA' WHERE id = ?";
         
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setDouble(1, amount);
-            stmt.setInt(2, quotaId);
-            
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setDouble(1, amount);
+                stmt.setInt(2, quotaId);
+                
+                boolean updated = stmt.executeUpdate() > 0;
+                if (updated) {
+                    refreshSummaryForQuota(conn, quotaId);
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
             
         } catch (SQLException e) {
             System.err.println("Error pagando cuota: " + e.getMessage());
@@ -182,27 +234,21 @@ public boolean updateQuota(Quota quota) {
         return false;
     }
     
-    public boolean updateOverdueQuotas() {
-        String sql = """
-            UPDATE quotas 
-            SET state = 'VENCIDA' 
-            WHERE expiration_date < GETDATE() 
-            AND payed_value IS NULL 
-            AND state = 'PENDIENTE'
-            """;
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            return stmt.executeUpdate() > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error actualizando cuotas vencidas: " + e.getMessage());
+    /**
+     * Recalcula el resumen de mora del crédito al que pertenece la cuota
+     */
+    private void refreshSummaryForQuota(Connection conn, int quotaId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT credit_id FROM quotas WHERE id = ?")) {
+            stmt.setInt(1, quotaId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    summaryDAO.refreshCredits(conn, List.of(rs.getInt(1)));
+                }
+            }
         }
-        return false;
     }
     
-    private Quota mapResultSetToQuota(ResultSet rs) throws SQLException {
+    private Quota mapResultSetToQuota(ResultSet rs, LoadContext ctx) throws SQLException {
         Quota quota = new Quota();
         quota.setId(rs.getInt("id"));
         quota.setQuotaNumber(rs.getInt("quota_number"));
@@ -221,8 +267,8 @@ public boolean updateQuota(Quota quota) {
         
         quota.setState(rs.getString("state"));
         
-        // Cargar crédito
-        quota.setCredit(creditDAO.findById(rs.getInt("credit_id")));
+        // Cargar crédito (por lotes)
+        ctx.credits().load(rs.getInt("credit_id"), quota::setCredit);
         
         return quota;
     }
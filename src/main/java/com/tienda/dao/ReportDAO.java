@@ -1,12 +1,14 @@
 package com.tienda.dao;
 
 import com.tienda.model.dtos.DefaulterClientDTO;
+import com.tienda.model.dtos.IVAReportTotalsDTO;
 import com.tienda.model.dtos.SaleReportDTO;
 import com.tienda.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ReportDAO {
     private final DatabaseConnection dbConnection;
@@ -15,41 +17,39 @@ public class ReportDAO {
         this.dbConnection = DatabaseConnection.getInstance();
     }
 
+    // Filas que el driver trae por viaje al recorrer el reporte de IVA
+    private static final int IVA_REPORT_FETCH_SIZE = 500;
+
+    // Columnas, FROM y orden del reporte de IVA; %s recibe el TOP de la vista previa
+    private static final String IVA_REPORT_QUERY = """
+            SELECT %s s.id, p.name AS product, sd.amount AS quantity, s.date,
+                   s.sale_type, s.subtotal, s.iva_total, s.total, c.name AS client
+            FROM sale_details sd
+            INNER JOIN sales s ON s.id = sd.sale_id
+            INNER JOIN products p ON p.id = sd.product_id
+            INNER JOIN clients c ON s.client_id = c.id
+            WHERE s.date BETWEEN ? AND ?
+            ORDER BY s.date DESC, s.id DESC
+            """;
+
     /**
-     * Obtiene las ventas para el reporte de IVA en un periodo
+     * Primeras maxRows líneas del reporte de IVA de un periodo, para la vista
+     * previa en pantalla. Los totales salen de getIVAReportTotals().
      */
-    public List<SaleReportDTO> getSalesForIVAReport(Date startDate, Date endDate) {
+    public List<SaleReportDTO> getSalesForIVAReport(Date startDate, Date endDate, int maxRows) {
         List<SaleReportDTO> sales = new ArrayList<>();
-        String sql = """
-                SELECT s.id, p.name AS product, sd.amount AS quantity, s.date,
-                       s.sale_type, s.subtotal, s.iva_total, s.total, c.name AS client
-                FROM sale_details sd
-                INNER JOIN sales s ON s.id = sd.sale_id
-                INNER JOIN products p ON p.id = sd.product_id
-                INNER JOIN clients c ON s.client_id = c.id
-                WHERE s.date BETWEEN ? AND ?
-                ORDER BY s.date DESC
-                """;
 
         try (Connection conn = dbConnection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(IVA_REPORT_QUERY.formatted("TOP (?)"))) {
 
-            stmt.setDate(1, startDate);
-            stmt.setDate(2, endDate);
-            ResultSet rs = stmt.executeQuery();
+            stmt.setInt(1, maxRows);
+            stmt.setDate(2, startDate);
+            stmt.setDate(3, endDate);
 
-            while (rs.next()) {
-                SaleReportDTO dto = new SaleReportDTO();
-                dto.setSaleId(rs.getInt("id"));
-                dto.setProductName(rs.getString("product"));
-                dto.setQuantity(rs.getInt("quantity"));
-                dto.setDate(rs.getDate("date"));
-                dto.setSaleType(rs.getString("sale_type"));
-                dto.setSubtotal(rs.getDouble("subtotal"));
-                dto.setIvaTotal(rs.getDouble("iva_total"));
-                dto.setTotal(rs.getDouble("total"));
-                dto.setClientName(rs.getString("client"));
-                sales.add(dto);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(mapIVAReportRow(rs));
+                }
             }
 
         } catch (SQLException e) {
@@ -61,58 +61,107 @@ public class ReportDAO {
     }
 
     /**
-     * Calcula el total de IVA en un periodo
+     * Recorre las ventas del reporte de IVA entregando una fila a la vez, sin
+     * acumularlas: el ResultSet es de solo avance y el driver las trae por
+     * bloques. Devuelve false si la consulta falló.
      */
-    public double getTotalIVA(Date startDate, Date endDate) {
+    public boolean streamSalesForIVAReport(Date startDate, Date endDate, Consumer<SaleReportDTO> action) {
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(IVA_REPORT_QUERY.formatted(""),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(IVA_REPORT_FETCH_SIZE);
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapIVAReportRow(rs));
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error obteniendo ventas para reporte IVA: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Número de ventas y totales (subtotal, IVA y total) de un periodo, desde
+     * el resumen diario de ventas
+     */
+    public IVAReportTotalsDTO getIVAReportTotals(Date startDate, Date endDate) {
         String sql = """
-                SELECT SUM(s.iva_total) AS TaxAmount
-                FROM sales s
-                WHERE s.date BETWEEN ? AND ?
+                SELECT COALESCE(SUM(r.sale_count), 0) AS sale_count,
+                       COALESCE(SUM(r.subtotal), 0) AS subtotal,
+                       COALESCE(SUM(r.iva_total), 0) AS iva_total,
+                       COALESCE(SUM(r.total), 0) AS total
+                FROM sales_daily_rollup r
+                WHERE r.category_id = 0 AND r.sale_date BETWEEN ? AND ?
                 """;
 
+        IVAReportTotalsDTO totals = new IVAReportTotalsDTO();
+
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDate(1, startDate);
             stmt.setDate(2, endDate);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getDouble("TaxAmount");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    totals.setSaleCount(rs.getInt("sale_count"));
+                    totals.setSubtotal(rs.getDouble("subtotal"));
+                    totals.setIvaTotal(rs.getDouble("iva_total"));
+                    totals.setTotal(rs.getDouble("total"));
+                }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error calculando total IVA: " + e.getMessage());
+            System.err.println("Error calculando totales del reporte IVA: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return 0.0;
+        return totals;
+    }
+
+    private SaleReportDTO mapIVAReportRow(ResultSet rs) throws SQLException {
+        SaleReportDTO dto = new SaleReportDTO();
+        dto.setSaleId(rs.getInt("id"));
+        dto.setProductName(rs.getString("product"));
+        dto.setQuantity(rs.getInt("quantity"));
+        dto.setDate(rs.getDate("date"));
+        dto.setSaleType(rs.getString("sale_type"));
+        dto.setSubtotal(rs.getDouble("subtotal"));
+        dto.setIvaTotal(rs.getDouble("iva_total"));
+        dto.setTotal(rs.getDouble("total"));
+        dto.setClientName(rs.getString("client"));
+        return dto;
     }
 
     public List<DefaulterClientDTO> getDefaulterClients() {
         List<DefaulterClientDTO> list = new ArrayList<>();
 
+        // Lee el resumen por crédito (delinquency_summary) en lugar de agrupar todas las cuotas
         String sql = """
                     SELECT
                         c.name AS client_name,
                         c.document_number,
                         c.phone_number,
                         c.email,
-                        cr.id AS credit_id,
-                        SUM(q.quota_value - ISNULL(q.payed_value, 0)) AS total_debt,
-                        COUNT(q.id) AS overdue_quotas,
-                        MAX(q.payed_at) AS last_payment_date,
-                        DATEDIFF(DAY, MIN(q.expiration_date), GETDATE()) AS days_past_due
-                    FROM clients c
-                    JOIN sales s ON s.client_id = c.id
-                    JOIN credits cr ON cr.sale_id = s.id
-                    JOIN quotas q ON q.credit_id = cr.id
-                    WHERE q.state = 'VENCIDA'
-                    GROUP BY
-                        c.name, c.document_number, c.phone_number, c.email, cr.id
-                    HAVING COUNT(q.id) > 0
-                    ORDER BY overdue_quotas DESC
-                """;
+                        ds.credit_id,
+                        ds.total_debt,
+                        ds.overdue_quotas,
+                        ds.last_payment_date,
+                        %s AS days_past_due
+                    FROM delinquency_summary ds
+                    JOIN credits cr ON cr.id = ds.credit_id
+                    JOIN sales s ON s.id = cr.sale_id
+                    JOIN clients c ON c.id = s.client_id
+                    ORDER BY ds.overdue_quotas DESC
+                """.formatted(dbConnection.getDialect().daysBetween(
+                        "ds.first_overdue_date", dbConnection.getDialect().currentTimestamp()));
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql);
@@ -2,56 +2,51 @@ package com.tienda.dao;
 
 import com.tienda.model.Role;
 import com.tienda.util.DatabaseConnection;
+import com.tienda.util.ReferenceCache;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class RoleDAO {
-    private final DatabaseConnection dbConnection;
+    private static final long CACHE_TTL_MS = Long.getLong("tienda.cache.referenceTtlMs", 600_000);
+
+    // Compartida por todas las instancias del DAO
+    private static final ReferenceCache<Integer, Role> CACHE = new ReferenceCache<>(
+            "roles", RoleDAO::loadAll, Role::getId, CACHE_TTL_MS);
     
-    public RoleDAO() {
-        this.dbConnection = DatabaseConnection.getInstance();
-    }
     
     public Role findById(int id) {
-        String sql = "SELECT * FROM roles WHERE id = ?";
-        
-        try (Connection conn = dbConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return mapResultSetToRole(rs);
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error buscando rol: " + e.getMessage());
-        }
-        return null;
+        return CACHE.get(id);
     }
     
     public List<Role> findAll() {
+        return CACHE.getAll();
+    }
+    
+    /**
+     * Fuerza la recarga de la caché (por ejemplo tras editar roles por fuera del DAO)
+     */
+    public static void invalidateCache() {
+        CACHE.invalidate();
+    }
+    
+    private static List<Role> loadAll() throws SQLException {
         List<Role> roles = new ArrayList<>();
         String sql = "SELECT * FROM roles";
         
-        try (Connection conn = dbConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 roles.add(mapResultSetToRole(rs));
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo todos los roles: " + e.getMessage());
         }
         return roles;
     }
     
-    private Role mapResultSetToRole(ResultSet rs) throws SQLException {
+    private static Role mapResultSetToRole(ResultSet rs) throws SQLException {
         Role role = new Role();
         role.setId(rs.getInt("id"));
         role.setName(rs.getString("name"));
@@ -0,0 +1,82 @@
+package com.tienda.dao;
+
+import com.tienda.model.dtos.SalesDashboardDTO;
+import com.tienda.model.dtos.UserSalesDTO;
+import com.tienda.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Datos de la pantalla de ventas por usuario en una sola consulta: ventas por
+ * usuario, por tipo y el total general salen de un GROUPING SETS sobre el
+ * resumen diario (en H2, del equivalente que arma el dialecto).
+ */
+public class SalesDashboardDAO {
+    // Posición de cada nivel en la lista de GROUPING SETS
+    private static final int BY_USER = 0;
+    private static final int BY_TYPE = 1;
+    private static final int GRAND_TOTAL = 2;
+
+    private static final String BASE_QUERY = """
+            SELECT r.user_id, u.name AS user_name, r.sale_type, r.sale_count
+            FROM sales_daily_rollup r
+            INNER JOIN users u ON u.id = r.user_id
+            WHERE r.category_id = 0 AND r.sale_date BETWEEN ? AND ?
+            """;
+
+    private final DatabaseConnection dbConnection;
+
+    public SalesDashboardDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    public SalesDashboardDTO getDashboard(Date startDate, Date endDate) {
+        String sql = dbConnection.getDialect().groupingSets(
+                BASE_QUERY,
+                List.of("user_id", "user_name", "sale_type"),
+                "SUM(sale_count) AS sales",
+                List.of(List.of("user_id", "user_name"), List.of("sale_type"), List.of()));
+
+        SalesDashboardDTO dashboard = new SalesDashboardDTO();
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int sales = rs.getInt("sales");
+                    switch (rs.getInt("grouping_set")) {
+                        case BY_USER -> {
+                            UserSalesDTO dto = new UserSalesDTO();
+                            dto.setId(rs.getInt("user_id"));
+                            dto.setUserName(rs.getString("user_name"));
+                            dto.setTotalSales(sales);
+                            dashboard.getUserSales().add(dto);
+                        }
+                        case BY_TYPE -> {
+                            if ("COUNT".equals(rs.getString("sale_type"))) {
+                                dashboard.setCountSales(sales);
+                            } else if ("CREDIT".equals(rs.getString("sale_type"))) {
+                                dashboard.setCreditSales(sales);
+                            }
+                        }
+                        case GRAND_TOTAL -> dashboard.setTotalSales(sales);
+                        default -> {
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error obteniendo resumen de ventas por usuario: " + e.getMessage());
+        }
+
+        dashboard.getUserSales().sort(Comparator.comparing(UserSalesDTO::getUserName));
+        return dashboard;
+    }
+}
@@ -0,0 +1,102 @@
+package com.tienda.dao;
+
+import com.tienda.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Mantiene sales_daily_rollup: totales de ventas por día, usuario, tipo de
+ * venta y categoría, para que los reportes por periodo no recorran sales.
+ *
+ * Las filas con category_id = 0 son el total de las ventas (sale_count cuenta
+ * ventas y los valores salen del encabezado). Las demás reparten las líneas
+ * de detalle por categoría: sale_count cuenta las ventas que incluyen la
+ * categoría, así que solo las filas 0 se suman para contar ventas.
+ *
+ * SaleService llama a refreshDay() dentro de la transacción de la venta.
+ */
+public class SalesRollupDAO {
+    private static final String INSERT_COLUMNS = """
+            INSERT INTO sales_daily_rollup
+                (sale_date, user_id, sale_type, category_id, sale_count, subtotal, iva_total, total)
+            """;
+
+    private final DatabaseConnection dbConnection;
+
+    public SalesRollupDAO() {
+        this.dbConnection = DatabaseConnection.getInstance();
+    }
+
+    private static String totalsSelect(String where) {
+        return """
+                SELECT s.date, s.user_id, s.sale_type, 0,
+                       COUNT(*), SUM(s.subtotal), SUM(s.iva_total), SUM(s.total)
+                FROM sales s
+                %s
+                GROUP BY s.date, s.user_id, s.sale_type
+                """.formatted(where);
+    }
+
+    private static String categoriesSelect(String where) {
+        return """
+                SELECT s.date, s.user_id, s.sale_type, p.category_id,
+                       COUNT(DISTINCT s.id), SUM(sd.subtotal), SUM(sd.iva_applied),
+                       SUM(sd.subtotal + sd.iva_applied)
+                FROM sales s
+                INNER JOIN sale_details sd ON sd.sale_id = s.id
+                INNER JOIN products p ON p.id = sd.product_id
+                %s
+                GROUP BY s.date, s.user_id, s.sale_type, p.category_id
+                """.formatted(where);
+    }
+
+    /**
+     * Recalcula las filas de un día, usuario y tipo de venta. Una venta solo
+     * toca esas filas, y recalcularlas recorre las ventas del usuario en ese
+     * día (índice IX_sales_user), no el periodo completo.
+     */
+    public void refreshDay(Connection conn, LocalDate date, int userId, String saleType) throws SQLException {
+        String where = "WHERE s.user_id = ? AND s.date = ? AND s.sale_type = ?";
+        try (PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM sales_daily_rollup WHERE user_id = ? AND sale_date = ? AND sale_type = ?");
+             PreparedStatement totals = conn.prepareStatement(INSERT_COLUMNS + totalsSelect(where));
+             PreparedStatement categories = conn.prepareStatement(INSERT_COLUMNS + categoriesSelect(where))) {
+
+            for (PreparedStatement stmt : new PreparedStatement[] { delete, totals, categories }) {
+                stmt.setInt(1, userId);
+                stmt.setDate(2, Date.valueOf(date));
+                stmt.setString(3, saleType);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Reconstruye la tabla completa a partir de sales y sale_details
+     */
+    public boolean rebuild() {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                rebuild(conn);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reconstruyendo resumen diario de ventas: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM sales_daily_rollup");
+            stmt.executeUpdate(INSERT_COLUMNS + totalsSelect(""));
+            stmt.executeUpdate(INSERT_COLUMNS + categoriesSelect(""));
+        }
+    }
+}
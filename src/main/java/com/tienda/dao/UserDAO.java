@@ -1,12 +1,14 @@
 package com.tienda.dao;
 
 import com.tienda.model.User;
-import com.tienda.model.dtos.UserSalesDTO;
 import com.tienda.util.DatabaseConnection;
+import com.tienda.util.PasswordHasher;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class UserDAO {
     private final DatabaseConnection dbConnection;
@@ -25,7 +27,9 @@ public class UserDAO {
 
             stmt.setString(1, user.getName());
             stmt.setString(2, user.getEmail());
-            stmt.setString(3, user.getPassword());
+            // La contraseña llega en texto plano (registro) y nunca se guarda así.
+            // Se hashea siempre, aunque parezca un hash: la escribió el usuario
+            stmt.setString(3, PasswordHasher.hash(user.getPassword()));
             stmt.setString(4, user.getPhoneNumber());
             stmt.setInt(5, user.getRole().getId());
 
@@ -92,6 +96,33 @@ public class UserDAO {
         return null;
     }
 
+    /**
+     * Carga varios usuarios con una sola consulta IN
+     */
+    public Map<Integer, User> findByIds(List<Integer> ids) {
+        Map<Integer, User> users = new HashMap<>();
+        if (ids.isEmpty()) {
+            return users;
+        }
+        String sql = "SELECT * FROM users WHERE id IN (" + BatchLoader.inPlaceholders(ids.size()) + ")";
+
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            BatchLoader.bindIds(stmt, ids);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                User user = mapResultSetToUser(rs);
+                users.put(user.getId(), user);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error buscando usuarios por lote: " + e.getMessage());
+        }
+        return users;
+    }
+
     public User findByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email = ?";
 
@@ -111,22 +142,21 @@ public class UserDAO {
         return null;
     }
 
-    public boolean validateCredentials(String email, String password) {
-        String sql = "SELECT COUNT(*) as count FROM users WHERE email = ? AND password = ?";
+    /**
+     * Reemplaza el valor guardado de la contraseña por el hash indicado
+     */
+    public boolean updatePassword(int userId, String passwordHash) {
+        String sql = "UPDATE users SET password = ? WHERE id = ?";
 
         try (Connection conn = dbConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, email);
-            stmt.setString(2, password); // En producción usar hash
-
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count") > 0;
-            }
+            stmt.setString(1, passwordHash);
+            stmt.setInt(2, userId);
+            return stmt.executeUpdate() > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error validando credenciales: " + e.getMessage());
+            System.err.println("Error actualizando contraseña: " + e.getMessage());
         }
         return false;
     }
@@ -139,86 +169,9 @@ public class UserDAO {
         user.setPassword(rs.getString("password"));
         user.setPhoneNumber(rs.getString("phone_number"));
 
-        // Cargar rol
+        // Cargar rol (desde la caché de referencia)
         user.setRole(roleDAO.findById(rs.getInt("role_id")));
 
         return user;
     }
-    
-    public List<UserSalesDTO> getUserSales(Date startDate, Date endDate) {
-        List<UserSalesDTO> userSales = new ArrayList<>();
-        String sql = """
-                        SELECT u.id, u.name, (COUNT(s.user_id)) AS sales FROM users u 
-                        LEFT JOIN sales s ON u.id = s.user_id 
-                        WHERE s.date BETWEEN ? AND ? 
-                        GROUP BY u.id, u.name
-                        ORDER BY u.name ASC
-                    """;
-                
-               
-        try (Connection conn = dbConnection.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setDate(1, startDate);
-            stmt.setDate(2, endDate);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                UserSalesDTO dto = new UserSalesDTO();
-                dto.setId(rs.getInt("id"));
-                dto.setUserName(rs.getString("name"));
-                dto.setTotalSales(rs.getInt("sales"));
-                userSales.add(dto);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo ventas por usuario: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return userSales;
-    }
-
-    public int getTotalCountSales (Date startDate, Date endDate){
-        String sql = """
-                    SELECT COUNT(*) AS TotalCounts FROM sales s 
-                    WHERE s.sale_type = 'COUNT' AND s.date BETWEEN ? AND ?
-                    """;
-        try (Connection conn = dbConnection.getConnection()){
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setDate(1, startDate);
-            stmt.setDate(2, endDate);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("TotalCounts");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo cantidad de ventas tipo contado: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    public int getTotalCreditSales (Date startDate, Date endDate){
-        String sql = """
-                    SELECT COUNT(*) AS TotalCredits FROM sales s 
-                    WHERE s.sale_type = 'CREDIT' AND s.date BETWEEN ? AND ?
-                    """;
-        
-        try (Connection conn = dbConnection.getConnection()){
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setDate(1, startDate);
-            stmt.setDate(2, endDate);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt("TotalCredits");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error obteniendo cantidad de ventas tipo credito: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return 0;
-    }
-
-    public int getTotalSales (List<UserSalesDTO> userSales){
-        return userSales.stream().mapToInt(UserSalesDTO::getTotalSales).sum();
-    }
-}
\ No newline at end of file
+}
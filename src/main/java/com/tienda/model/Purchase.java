@@ -15,4 +15,5 @@ public class Purchase {
     private double total;
     private Client client;
     private User user;
+    private int productCount; // líneas de detalle; solo lo llenan las consultas del historial
 }
@@ -0,0 +1,12 @@
+package com.tienda.model.dtos;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class AccessLogFilterDTO {
+    private Integer userId; // null = todos los usuarios
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
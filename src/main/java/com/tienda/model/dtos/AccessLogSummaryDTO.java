@@ -0,0 +1,9 @@
+package com.tienda.model.dtos;
+
+import lombok.Data;
+
+@Data
+public class AccessLogSummaryDTO {
+    private int totalEntries;
+    private int activeSessions; // Entradas sin hora de salida
+}
@@ -0,0 +1,11 @@
+package com.tienda.model.dtos;
+
+import lombok.Data;
+
+@Data
+public class IVAReportTotalsDTO {
+    private int saleCount;
+    private double subtotal;
+    private double ivaTotal;
+    private double total;
+}
@@ -0,0 +1,10 @@
+package com.tienda.model.dtos;
+
+import lombok.Data;
+
+@Data
+public class ProductFilterDTO {
+    private String text; // Código, nombre o descripción
+    private Integer categoryId; // null o 0 = todas
+    private String stockFilter; // (Todos, Con Stock, Sin Stock, Stock Bajo)
+}
@@ -0,0 +1,17 @@
+package com.tienda.model.dtos;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class SaleFilterDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String saleType; // (TODOS, CONTADO, CREDITO)
+    private String clientName;
+    private String userName;
+    private String saleId;
+    private Double minAmount;
+    private Double maxAmount;
+}
@@ -0,0 +1,14 @@
+package com.tienda.model.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class SalesDashboardDTO {
+    private List<UserSalesDTO> userSales = new ArrayList<>();
+    private int countSales; // Ventas de contado
+    private int creditSales;
+    private int totalSales;
+}
@@ -0,0 +1,11 @@
+package com.tienda.model.dtos;
+
+import lombok.Data;
+
+@Data
+public class SalesSummaryDTO {
+    private int totalSales;
+    private double totalAmount;
+    private double cashSales;   // Monto de las ventas de contado
+    private double creditSales; // Monto de las ventas a crédito
+}
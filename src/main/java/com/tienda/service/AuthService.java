@@ -0,0 +1,141 @@
+package com.tienda.service;
+
+import com.tienda.dao.UserDAO;
+import com.tienda.model.Role;
+import com.tienda.model.User;
+import com.tienda.util.DatabaseConnection;
+import com.tienda.util.PasswordHasher;
+
+import java.sql.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autenticación de usuarios.
+ *
+ * Usuario, rol y hash de la contraseña llegan en una sola consulta y la
+ * contraseña se verifica en la aplicación, así un login cuesta un viaje a la
+ * base de datos. El usuario ya resuelto (con su rol) queda en caché por
+ * correo: volver a entrar en la misma terminal, como en los cambios de turno,
+ * verifica contra el hash en memoria sin consultar. En caché solo hay hashes,
+ * nunca una contraseña anterior en texto plano.
+ *
+ * La caché es de cada terminal: un usuario eliminado o con la contraseña
+ * cambiada en otra terminal puede seguir entrando en esta hasta que venza
+ * tienda.auth.principalTtlMs (un minuto por defecto).
+ */
+public class AuthService {
+    private static final long PRINCIPAL_TTL_MS = Long.getLong("tienda.auth.principalTtlMs", 60_000);
+
+    // Compartida por todas las instancias; solo guarda logins exitosos
+    private static final Map<String, CachedPrincipal> PRINCIPALS = new ConcurrentHashMap<>();
+
+    private final DatabaseConnection dbConnection;
+    private final UserDAO userDAO;
+
+    public AuthService() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.userDAO = new UserDAO();
+    }
+
+    /**
+     * Devuelve el usuario con su rol si el correo y la contraseña coinciden, o
+     * null si no. El usuario devuelto no trae la contraseña.
+     */
+    public User authenticate(String email, String password) throws SQLException {
+        CachedPrincipal cached = PRINCIPALS.get(email);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < PRINCIPAL_TTL_MS
+                && PasswordHasher.verify(password, cached.passwordHash())) {
+            return copy(cached.user());
+        }
+
+        CachedPrincipal loaded = loadPrincipal(email);
+        if (loaded == null || !PasswordHasher.verify(password, loaded.passwordHash())) {
+            PRINCIPALS.remove(email);
+            return null;
+        }
+
+        if (PasswordHasher.needsRehash(loaded.passwordHash())) {
+            // Lo guardado puede ser la contraseña misma: se cachea el hash nuevo al actualizarlo
+            upgradeHash(email, loaded.user(), password);
+        } else {
+            PRINCIPALS.put(email, loaded);
+        }
+        return copy(loaded.user());
+    }
+
+    /**
+     * Descarta los usuarios en caché (por ejemplo tras eliminar un usuario).
+     * Solo afecta a esta terminal; las demás los descartan al vencer el TTL.
+     */
+    public static void invalidateCache() {
+        PRINCIPALS.clear();
+    }
+
+    private CachedPrincipal loadPrincipal(String email) throws SQLException {
+        String sql = """
+                SELECT u.id, u.name, u.email, u.password, u.phone_number,
+                       r.id AS role_id, r.name AS role_name, r.description AS role_description
+                FROM users u
+                LEFT JOIN roles r ON u.role_id = r.id
+                WHERE u.email = ?
+                """;
+
+        try (Connection conn = dbConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+
+                User user = new User();
+                user.setId(rs.getInt("id"));
+                user.setName(rs.getString("name"));
+                user.setEmail(rs.getString("email"));
+                user.setPhoneNumber(rs.getString("phone_number"));
+
+                int roleId = rs.getInt("role_id");
+                if (!rs.wasNull()) {
+                    Role role = new Role();
+                    role.setId(roleId);
+                    role.setName(rs.getString("role_name"));
+                    role.setDescription(rs.getString("role_description"));
+                    user.setRole(role);
+                }
+
+                return new CachedPrincipal(user, rs.getString("password"), System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Reemplaza una contraseña en texto plano (o con menos iteraciones) por su
+     * hash y deja en caché el usuario con ese hash. Corre en segundo plano para
+     * no sumar el hash ni un viaje al login.
+     */
+    private void upgradeHash(String email, User user, String password) {
+        Thread.ofVirtual().name("rehash-contrasena").start(() -> {
+            String hash = PasswordHasher.hash(password);
+            if (userDAO.updatePassword(user.getId(), hash)) {
+                PRINCIPALS.put(email, new CachedPrincipal(user, hash, System.currentTimeMillis()));
+            } else {
+                System.err.println("No se pudo actualizar el hash de la contraseña del usuario " + user.getId());
+            }
+        });
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setRole(user.getRole());
+        return copy;
+    }
+
+    private record CachedPrincipal(User user, String passwordHash, long loadedAt) {
+    }
+}
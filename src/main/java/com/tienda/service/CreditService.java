@@ -0,0 +1,87 @@
+package com.tienda.service;
+
+import com.tienda.dao.CreditDAO;
+import com.tienda.dao.QuotaDAO;
+import com.tienda.model.Credit;
+import com.tienda.model.Purchase;
+import com.tienda.model.Quota;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Apertura de créditos.
+ *
+ * El plan de cuotas se calcula en memoria y se inserta como un solo lote en la
+ * misma transacción que el crédito, así abrir un crédito cuesta los mismos
+ * viajes a la base de datos sin importar el número de meses.
+ */
+public class CreditService {
+    // Condiciones por defecto, las mismas de los créditos de los datos iniciales
+    public static final int DEFAULT_MONTHS = 12;
+    public static final double DEFAULT_INTEREST_RATE = 2.5;
+    public static final double INITIAL_QUOTA_RATE = 0.20;
+
+    private final CreditDAO creditDAO;
+    private final QuotaDAO quotaDAO;
+
+    public CreditService() {
+        this.creditDAO = new CreditDAO();
+        this.quotaDAO = new QuotaDAO();
+    }
+
+    /**
+     * Abre el crédito dentro de la transacción de la venta (SaleService), que
+     * también actualiza los resúmenes antes de confirmar: un INSERT para el
+     * crédito y un lote para las cuotas.
+     */
+    public Credit openCredit(Connection conn, Purchase sale, int months, double interestRate) throws SQLException {
+        if (months <= 0) {
+            throw new IllegalArgumentException("El crédito debe tener al menos una cuota");
+        }
+
+        double initialQuota = round(sale.getTotal() * INITIAL_QUOTA_RATE);
+
+        Credit credit = new Credit();
+        credit.setInitialQuota(initialQuota);
+        credit.setAmountFinanced(round(sale.getTotal() - initialQuota));
+        credit.setMonths(months);
+        credit.setInterestRate(interestRate);
+        credit.setCreatedAt(sale.getDate() != null ? sale.getDate() : LocalDate.now());
+        credit.setState("VIGENTE");
+        credit.setSale(sale);
+
+        creditDAO.save(conn, credit);
+        quotaDAO.saveAll(conn, buildSchedule(credit));
+        return credit;
+    }
+
+    /**
+     * Cuotas mensuales iguales sobre el valor financiado, con vencimiento el
+     * mismo día de cada mes siguiente. El centavo que sobra del redondeo se
+     * suma a la última cuota para que el plan sume exactamente lo financiado.
+     */
+    public List<Quota> buildSchedule(Credit credit) {
+        int months = credit.getMonths();
+        double quotaValue = round(credit.getAmountFinanced() / months);
+        double lastQuotaValue = round(credit.getAmountFinanced() - quotaValue * (months - 1));
+
+        List<Quota> schedule = new ArrayList<>(months);
+        for (int number = 1; number <= months; number++) {
+            Quota quota = new Quota();
+            quota.setQuotaNumber(number);
+            quota.setExpirationDate(credit.getCreatedAt().plusMonths(number));
+            quota.setQuotaValue(number == months ? lastQuotaValue : quotaValue);
+            quota.setState("PENDIENTE");
+            quota.setCredit(credit);
+            schedule.add(quota);
+        }
+        return schedule;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
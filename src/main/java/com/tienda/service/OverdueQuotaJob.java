@@ -0,0 +1,231 @@
+package com.tienda.service;
+
+import com.tienda.dao.DelinquencySummaryDAO;
+import com.tienda.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marca como VENCIDA las cuotas pendientes cuya fecha ya pasó y pasa a MORA
+ * los créditos vigentes que las tienen.
+ *
+ * Recorre las cuotas por bloques en orden (expiration_date, id). Cada bloque
+ * es una transacción corta que cambia las cuotas, los créditos, el resumen de
+ * mora y el punto de control, así una caja que registra un pago nunca espera
+ * más que un bloque y, si la aplicación se cierra, la siguiente corrida sigue
+ * desde la última cuota procesada. Las cuotas nuevas vencen en el futuro,
+ * así que siempre quedan por delante del punto de control.
+ */
+public class OverdueQuotaJob {
+    private static final String JOB_NAME = "overdue_quotas";
+
+    private static final int CHUNK_SIZE = Integer.getInteger("tienda.overdue.chunkSize", 500);
+    private static final long INTERVAL_MINUTES = Long.getLong("tienda.overdue.intervalMinutes", 60);
+
+    private final DatabaseConnection dbConnection;
+    private final DelinquencySummaryDAO summaryDAO;
+    private ScheduledExecutorService scheduler;
+
+    public OverdueQuotaJob() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.summaryDAO = new DelinquencySummaryDAO();
+    }
+
+    /**
+     * Corre ahora y luego cada INTERVAL_MINUTES en un hilo de fondo
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cuotas-vencidas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Detiene el programador. Un bloque en curso termina su transacción.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    private void runSafely() {
+        try {
+            int marked = runOnce();
+            if (marked > 0) {
+                System.out.println("Cuotas marcadas como vencidas: " + marked);
+            }
+        } catch (SQLException e) {
+            // Lo ya confirmado queda en el punto de control; la próxima corrida sigue desde ahí
+            System.err.println("Error procesando cuotas vencidas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa todos los bloques pendientes hasta la fecha actual del servidor.
+     * Devuelve la cantidad de cuotas marcadas como vencidas.
+     */
+    public int runOnce() throws SQLException {
+        int total = 0;
+        try (Connection conn = dbConnection.getConnection()) {
+            // Una cuota vence al terminar su día: se procesan las de fechas anteriores a hoy
+            Date cutoff = serverDate(conn);
+            Checkpoint checkpoint = loadCheckpoint(conn);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                List<DueQuota> chunk = nextChunk(conn, checkpoint, cutoff);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                checkpoint = processChunk(conn, chunk);
+                total += chunk.size();
+                if (chunk.size() < CHUNK_SIZE) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    private List<DueQuota> nextChunk(Connection conn, Checkpoint checkpoint, Date cutoff) throws SQLException {
+        String sql = """
+                SELECT TOP (?) id, credit_id, expiration_date
+                FROM quotas
+                WHERE state = 'PENDIENTE'
+                  AND payed_value IS NULL
+                  AND expiration_date < ?
+                  AND (expiration_date > ? OR (expiration_date = ? AND id > ?))
+                ORDER BY expiration_date, id
+                """;
+
+        List<DueQuota> chunk = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, CHUNK_SIZE);
+            stmt.setDate(2, cutoff);
+            stmt.setDate(3, checkpoint.expirationDate());
+            stmt.setDate(4, checkpoint.expirationDate());
+            stmt.setInt(5, checkpoint.quotaId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    chunk.add(new DueQuota(rs.getInt("id"), rs.getInt("credit_id"), rs.getDate("expiration_date")));
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Cuotas, créditos, resumen de mora y punto de control en una sola transacción
+     */
+    private Checkpoint processChunk(Connection conn, List<DueQuota> chunk) throws SQLException {
+        Set<Integer> creditIds = new LinkedHashSet<>();
+        DueQuota last = chunk.get(chunk.size() - 1);
+        Checkpoint next = new Checkpoint(last.expirationDate(), last.id());
+
+        conn.setAutoCommit(false);
+        try {
+            // La condición sobre el estado evita pisar un pago registrado mientras tanto
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE quotas SET state = 'VENCIDA' WHERE id = ? AND state = 'PENDIENTE' AND payed_value IS NULL")) {
+                for (DueQuota quota : chunk) {
+                    stmt.setInt(1, quota.id());
+                    stmt.addBatch();
+                    creditIds.add(quota.creditId());
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE credits SET state = 'MORA' WHERE id = ? AND state = 'VIGENTE'")) {
+                for (int creditId : creditIds) {
+                    stmt.setInt(1, creditId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            summaryDAO.refreshCredits(conn, creditIds);
+            saveCheckpoint(conn, next);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return next;
+    }
+
+    private Date serverDate(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT " + dbConnection.getDialect().currentDate());
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getDate(1);
+        }
+    }
+
+    private Checkpoint loadCheckpoint(Connection conn) throws SQLException {
+        String sql = "SELECT last_expiration_date, last_id FROM job_checkpoints WHERE job_name = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, JOB_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Checkpoint(rs.getDate("last_expiration_date"), rs.getInt("last_id"));
+                }
+            }
+        }
+        return Checkpoint.START;
+    }
+
+    private void saveCheckpoint(Connection conn, Checkpoint checkpoint) throws SQLException {
+        String update = "UPDATE job_checkpoints SET last_expiration_date = ?, last_id = ?, updated_at = "
+                + dbConnection.getDialect().currentTimestamp() + " WHERE job_name = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(update)) {
+            stmt.setDate(1, checkpoint.expirationDate());
+            stmt.setInt(2, checkpoint.quotaId());
+            stmt.setString(3, JOB_NAME);
+            if (stmt.executeUpdate() > 0) {
+                return;
+            }
+        }
+
+        String insert = "INSERT INTO job_checkpoints (job_name, last_expiration_date, last_id, updated_at) VALUES (?, ?, ?, "
+                + dbConnection.getDialect().currentTimestamp() + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+            stmt.setString(1, JOB_NAME);
+            stmt.setDate(2, checkpoint.expirationDate());
+            stmt.setInt(3, checkpoint.quotaId());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Última cuota procesada, en el orden del recorrido
+     */
+    private record Checkpoint(Date expirationDate, int quotaId) {
+        static final Checkpoint START = new Checkpoint(Date.valueOf("1900-01-01"), 0);
+    }
+
+    private record DueQuota(int id, int creditId, Date expirationDate) {
+    }
+}
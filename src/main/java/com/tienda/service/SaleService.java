@@ -0,0 +1,155 @@
+package com.tienda.service;
+
+import com.tienda.controller.auxiliar.PurchaseItem;
+import com.tienda.dao.ProductDAO;
+import com.tienda.dao.SalesRollupDAO;
+import com.tienda.model.Purchase;
+import com.tienda.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Registro de ventas de varios productos.
+ *
+ * El encabezado, las líneas de detalle y el descuento de stock se escriben en
+ * una sola transacción; detalles y stock viajan como lotes JDBC, así el número
+ * de viajes a la base de datos no crece con el tamaño del carrito. Una venta
+ * a crédito abre también su crédito y plan de cuotas en la misma transacción,
+ * y el resumen diario de ventas se actualiza antes de confirmar.
+ */
+public class SaleService {
+    private final DatabaseConnection dbConnection;
+    private final CreditService creditService;
+    private final SalesRollupDAO rollupDAO;
+
+    public SaleService() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.creditService = new CreditService();
+        this.rollupDAO = new SalesRollupDAO();
+    }
+
+    /**
+     * Guarda la venta con todas las líneas del carrito. Los totales del
+     * encabezado se calculan a partir de las líneas. Si algo falla (por ejemplo
+     * stock insuficiente) se deshace todo y se lanza la excepción.
+     *
+     * Devuelve los ids de los productos vendidos, cuyo stock cambió.
+     */
+    public Set<Integer> commitSale(Purchase sale, List<PurchaseItem> items) throws SQLException {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("La venta no tiene productos");
+        }
+
+        double subtotal = 0;
+        double iva = 0;
+        for (PurchaseItem item : items) {
+            item.calculateTotals();
+            subtotal += item.getSubtotal().get();
+            iva += item.getIvaAmount().get();
+        }
+        sale.setSubtotal(subtotal);
+        sale.setIvaTotal(iva);
+        sale.setTotal(subtotal + iva);
+
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertHeader(conn, sale);
+                insertDetails(conn, sale.getId(), items);
+                decrementStock(conn, items);
+                if ("CREDIT".equals(sale.getSaleType())) {
+                    creditService.openCredit(conn, sale,
+                            CreditService.DEFAULT_MONTHS, CreditService.DEFAULT_INTEREST_RATE);
+                }
+                rollupDAO.refreshDay(conn, sale.getDate(), sale.getUser().getId(), sale.getSaleType());
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                sale.setId(0);
+                throw e;
+            }
+        }
+
+        // El stock cambió: actualizar el índice de productos del punto de venta
+        Set<Integer> productIds = new TreeSet<>();
+        for (PurchaseItem item : items) {
+            productIds.add(item.getProductId().get());
+        }
+        ProductDAO.refreshIndex(productIds);
+        return productIds;
+    }
+
+    private void insertHeader(Connection conn, Purchase sale) throws SQLException {
+        String sql = "INSERT INTO sales (date, sale_type, subtotal, iva_total, total, client_id, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setDate(1, Date.valueOf(sale.getDate()));
+            stmt.setString(2, sale.getSaleType());
+            stmt.setDouble(3, sale.getSubtotal());
+            stmt.setDouble(4, sale.getIvaTotal());
+            stmt.setDouble(5, sale.getTotal());
+            stmt.setInt(6, sale.getClient().getId());
+            stmt.setInt(7, sale.getUser().getId());
+            stmt.executeUpdate();
+
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (!rs.next()) {
+                throw new SQLException("No se pudo obtener el id generado para la venta");
+            }
+            sale.setId(rs.getInt(1));
+        }
+    }
+
+    private void insertDetails(Connection conn, int saleId, List<PurchaseItem> items) throws SQLException {
+        String sql = "INSERT INTO sale_details (amount, unit_price, iva_applied, subtotal, sale_id, product_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (PurchaseItem item : items) {
+                stmt.setInt(1, item.getQuantity().get());
+                stmt.setDouble(2, item.getUnitCost().get());
+                stmt.setDouble(3, item.getIvaAmount().get());
+                stmt.setDouble(4, item.getSubtotal().get());
+                stmt.setInt(5, saleId);
+                stmt.setInt(6, item.getProductId().get());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void decrementStock(Connection conn, List<PurchaseItem> items) throws SQLException {
+        // Un producto puede repetirse en el carrito; se agrupa por id y se
+        // actualiza en orden de id para que ventas concurrentes no se bloqueen
+        // en orden cruzado
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, String> names = new TreeMap<>();
+        for (PurchaseItem item : items) {
+            quantities.merge(item.getProductId().get(), item.getQuantity().get(), Integer::sum);
+            names.put(item.getProductId().get(), item.getProductName().get());
+        }
+
+        String sql = "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.setInt(3, entry.getValue());
+                stmt.addBatch();
+            }
+
+            int[] results = stmt.executeBatch();
+            int i = 0;
+            for (Integer productId : quantities.keySet()) {
+                if (results[i++] == 0) {
+                    throw new SQLException("Stock insuficiente para el producto: " + names.get(productId));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.tienda.util;
+
+import com.tienda.dao.AccessBinnacleDAO;
+import com.tienda.model.AccessBinnacle;
+import com.tienda.model.User;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Escribe la bitácora de acceso en segundo plano.
+ *
+ * El login y el cierre de sesión solo encolan el evento. Un hilo lo toma,
+ * espera unos milisegundos a que lleguen más (en el cambio de turno entran
+ * muchas terminales a la vez) y escribe todo en una transacción: un lote de
+ * INSERT y un lote de UPDATE. Una entrada y su salida que caen en el mismo
+ * lote se insertan como una sola fila cerrada.
+ *
+ * Si la base de datos no responde, o si la cola está llena, los eventos se
+ * agregan a un archivo local y se reintentan antes del siguiente lote. Al
+ * cerrar la aplicación se escribe lo que quede en la cola; si el hilo no
+ * termina a tiempo, la cola y el lote en curso se pasan al archivo.
+ */
+public class AccessLogWriter {
+    private static final int QUEUE_CAPACITY = Integer.getInteger("tienda.accessLog.queueCapacity", 10_000);
+    private static final int BATCH_SIZE = Integer.getInteger("tienda.accessLog.batchSize", 200);
+    private static final long LINGER_MS = Long.getLong("tienda.accessLog.lingerMs", 200);
+    // Sin tráfico, cada cuánto se reintenta el archivo pendiente
+    private static final long RETRY_MS = Long.getLong("tienda.accessLog.retryMs", 30_000);
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private static final Event STOP = new Event(Kind.OPEN, null);
+
+    private final DatabaseConnection dbConnection;
+    private final AccessBinnacleDAO binnacleDAO;
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Path spillFile;
+    // Solo protege las operaciones sobre el archivo, nunca una escritura en la base
+    private final Object spillLock = new Object();
+    // Lote que el hilo está escribiendo. Quien lo toma (el hilo antes de confirmar,
+    // o shutdown() si el hilo no terminó) es el único que lo escribe o lo guarda
+    private final AtomicReference<List<Event>> inFlight = new AtomicReference<>();
+    private Thread worker;
+
+    public AccessLogWriter() {
+        this.dbConnection = DatabaseConnection.getInstance();
+        this.binnacleDAO = new AccessBinnacleDAO();
+        String defaultFile = System.getProperty("user.home") + File.separator + ".tienda"
+                + File.separator + "bitacora-pendiente.log";
+        this.spillFile = Path.of(System.getProperty("tienda.accessLog.spillFile", defaultFile));
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::run, "bitacora-acceso");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Escribe lo que quede en la cola y detiene el hilo. Lo que no se alcance
+     * a escribir queda en el archivo pendiente.
+     */
+    public synchronized void shutdown() {
+        if (worker == null) {
+            return;
+        }
+        try {
+            // Si la cola está llena, el hilo la vacía y deja el lugar para STOP
+            if (!queue.offer(STOP, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                System.err.println("No se pudo detener la escritura de la bitácora a tiempo");
+            }
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (worker.isAlive()) {
+            // Probablemente esperando una conexión: el hilo es daemon y muere con
+            // la JVM, así que lo que tenga se guarda aquí antes de salir
+            List<Event> remaining = new ArrayList<>();
+            List<Event> batch = inFlight.getAndSet(null);
+            if (batch != null) {
+                remaining.addAll(batch);
+            }
+            queue.drainTo(remaining);
+            remaining.remove(STOP);
+            System.err.println("La bitácora no terminó de escribirse; " + remaining.size()
+                    + " eventos se guardan en " + spillFile);
+            spill(remaining);
+        }
+        worker = null;
+    }
+
+    /**
+     * Encola el ingreso de un usuario
+     */
+    public void recordEntry(AccessBinnacle entry) {
+        enqueue(new Event(Kind.OPEN, copy(entry)));
+    }
+
+    /**
+     * Encola la salida de una entrada ya registrada; la entrada debe traer la
+     * hora de salida
+     */
+    public void recordExit(AccessBinnacle entry) {
+        enqueue(new Event(Kind.CLOSE, copy(entry)));
+    }
+
+    private void enqueue(Event event) {
+        if (!queue.offer(event)) {
+            // Nunca se bloquea el login: si la cola está llena el evento va al archivo
+            System.err.println("Cola de bitácora llena; el evento se guarda en " + spillFile);
+            spill(List.of(event));
+        }
+    }
+
+    private void run() {
+        boolean stopping = false;
+        while (!stopping) {
+            List<Event> batch = new ArrayList<>();
+            try {
+                Event first = queue.poll(RETRY_MS, TimeUnit.MILLISECONDS);
+                if (first == STOP) {
+                    stopping = true;
+                } else if (first != null) {
+                    batch.add(first);
+                    stopping = collect(batch);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+
+            if (stopping) {
+                // Lo que haya quedado detrás de STOP también se escribe
+                queue.drainTo(batch);
+                batch.remove(STOP);
+            }
+            inFlight.set(batch);
+            flush(batch);
+        }
+    }
+
+    /**
+     * Junta eventos hasta llenar el lote o agotar la espera. Devuelve true si
+     * llegó la orden de detenerse.
+     */
+    private boolean collect(List<Event> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LINGER_MS);
+        while (batch.size() < BATCH_SIZE) {
+            long remaining = deadline - System.nanoTime();
+            Event event = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (event == null) {
+                return false;
+            }
+            if (event == STOP) {
+                return true;
+            }
+            batch.add(event);
+        }
+        return false;
+    }
+
+    /**
+     * Escribe primero lo pendiente en el archivo (es más antiguo) y luego el
+     * lote, todo en una transacción. Si falla, el lote se agrega al archivo.
+     *
+     * El lote se toma de inFlight justo antes de confirmar: si shutdown() ya lo
+     * guardó en el archivo, aquí se descarta para no escribirlo dos veces.
+     */
+    private void flush(List<Event> batch) {
+        SpillSnapshot pending = readSpill();
+        if (pending.events().isEmpty() && batch.isEmpty()) {
+            inFlight.compareAndSet(batch, null);
+            return;
+        }
+        List<Event> events = new ArrayList<>(pending.events());
+        events.addAll(batch);
+
+        Connection conn;
+        try {
+            conn = dbConnection.getConnection();
+        } catch (SQLException e) {
+            System.err.println("Base de datos no disponible; la bitácora se guarda en " + spillFile + ": " + e.getMessage());
+            spillIfOwned(batch, false);
+            return;
+        }
+
+        boolean owned = false;
+        try (conn) {
+            try {
+                conn.setAutoCommit(false);
+                write(conn, events);
+                owned = inFlight.compareAndSet(batch, null);
+                if (!owned) {
+                    conn.rollback();
+                    return;
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                if (isConnectionError(e, conn)) {
+                    System.err.println("Conexión perdida; la bitácora se guarda en " + spillFile + ": " + e.getMessage());
+                    // El pool deshace la transacción al recibir la conexión
+                    spillIfOwned(batch, owned);
+                    return;
+                }
+                conn.rollback();
+                owned = owned || inFlight.compareAndSet(batch, null);
+                if (!owned) {
+                    return;
+                }
+                // La base rechazó algún dato: se reintenta evento por evento y
+                // solo se apartan los rechazados, para que no bloqueen los lotes siguientes
+                reject(writeOneByOne(conn, events), e);
+            }
+            consumeSpill(pending.length());
+        } catch (SQLException e) {
+            // Se perdió la conexión en medio de los reintentos o del rollback
+            System.err.println("Error escribiendo bitácora de acceso; se guarda en " + spillFile + ": " + e.getMessage());
+            spillIfOwned(batch, owned);
+        }
+    }
+
+    private void spillIfOwned(List<Event> batch, boolean owned) {
+        if (owned || inFlight.compareAndSet(batch, null)) {
+            spill(batch);
+        }
+    }
+
+    /**
+     * SQLSTATE de la clase 08 (conexión) o una conexión que ya no responde
+     */
+    private static boolean isConnectionError(Exception e, Connection conn) {
+        if (e instanceof SQLException sqlException
+                && sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("08")) {
+            return true;
+        }
+        try {
+            return !conn.isValid(2);
+        } catch (SQLException validationError) {
+            return true;
+        }
+    }
+
+    /**
+     * Escribe cada evento en su propia transacción. Devuelve los rechazados.
+     */
+    private List<Event> writeOneByOne(Connection conn, List<Event> events) throws SQLException {
+        List<Event> rejected = new ArrayList<>();
+        for (Event event : events) {
+            try {
+                write(conn, List.of(event));
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                if (isConnectionError(e, conn)) {
+                    throw e;
+                }
+                conn.rollback();
+                rejected.add(event);
+            }
+        }
+        return rejected;
+    }
+
+    private void reject(List<Event> events, Exception cause) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Path rejectedFile = spillFile.resolveSibling(spillFile.getFileName() + ".rechazado");
+        System.err.println("La base de datos rechazó " + events.size() + " eventos de bitácora; se guardan en "
+                + rejectedFile + ": " + cause.getMessage());
+        try {
+            append(rejectedFile, events);
+        } catch (IOException e) {
+            System.err.println("Error guardando bitácora rechazada: " + e.getMessage());
+        }
+    }
+
+    private void write(Connection conn, List<Event> events) throws SQLException {
+        // Una salida cuya entrada viene en el mismo lote cierra la fila antes de insertarla
+        Map<EntryKey, AccessBinnacle> opened = new LinkedHashMap<>();
+        List<AccessBinnacle> closed = new ArrayList<>();
+        for (Event event : events) {
+            AccessBinnacle entry = event.entry();
+            EntryKey key = new EntryKey(entry.getUser().getId(), entry.getEntryDateTime());
+            if (event.kind() == Kind.OPEN) {
+                opened.put(key, entry);
+            } else if (opened.containsKey(key)) {
+                opened.get(key).setDepartureDateTime(entry.getDepartureDateTime());
+            } else {
+                closed.add(entry);
+            }
+        }
+        binnacleDAO.insertAll(conn, new ArrayList<>(opened.values()));
+        binnacleDAO.closeAll(conn, closed);
+    }
+
+    private void spill(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        synchronized (spillLock) {
+            try {
+                append(spillFile, events);
+            } catch (IOException e) {
+                System.err.println("Error guardando bitácora pendiente, se pierden " + events.size()
+                        + " eventos: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void append(Path file, List<Event> events) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Event event : events) {
+                writer.write(event.toLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Eventos del archivo pendiente y cuántos bytes se leyeron, para luego
+     * quitar solo esa parte: mientras se escribe en la base pueden agregarse
+     * eventos nuevos al final.
+     */
+    private SpillSnapshot readSpill() {
+        List<Event> events = new ArrayList<>();
+        byte[] data;
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return new SpillSnapshot(events, 0);
+            }
+            try {
+                data = Files.readAllBytes(spillFile);
+            } catch (IOException e) {
+                System.err.println("Error leyendo bitácora pendiente: " + e.getMessage());
+                return new SpillSnapshot(events, 0);
+            }
+        }
+        for (String line : new String(data, StandardCharsets.UTF_8).split("\\R")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                events.add(Event.fromLine(line));
+            } catch (RuntimeException e) {
+                System.err.println("Línea inválida en bitácora pendiente, se descarta: " + line);
+            }
+        }
+        return new SpillSnapshot(events, data.length);
+    }
+
+    /**
+     * Quita del archivo pendiente los primeros bytes ya escritos en la base
+     */
+    private void consumeSpill(int length) {
+        if (length == 0) {
+            return;
+        }
+        synchronized (spillLock) {
+            try {
+                byte[] data = Files.readAllBytes(spillFile);
+                if (data.length <= length) {
+                    Files.deleteIfExists(spillFile);
+                } else {
+                    Files.write(spillFile, Arrays.copyOfRange(data, length, data.length),
+                            StandardOpenOption.TRUNCATE_EXISTING);
+                }
+            } catch (IOException e) {
+                System.err.println("Error actualizando bitácora pendiente: " + e.getMessage());
+            }
+        }
+    }
+
+    private static AccessBinnacle copy(AccessBinnacle entry) {
+        AccessBinnacle copy = new AccessBinnacle();
+        copy.setEntryDateTime(entry.getEntryDateTime());
+        copy.setDepartureDateTime(entry.getDepartureDateTime());
+        copy.setIp(entry.getIp());
+        copy.setUser(entry.getUser());
+        return copy;
+    }
+
+    private enum Kind {
+        OPEN,
+        CLOSE
+    }
+
+    private record EntryKey(int userId, LocalDateTime entryDateTime) {
+    }
+
+    private record SpillSnapshot(List<Event> events, int length) {
+    }
+
+    /**
+     * Evento de la cola. En el archivo pendiente es una línea
+     * tipo|usuario|entrada|salida|ip, con "-" para la salida vacía.
+     */
+    private record Event(Kind kind, AccessBinnacle entry) {
+
+        String toLine() {
+            LocalDateTime departure = entry.getDepartureDateTime();
+            return kind + "|" + entry.getUser().getId() + "|" + entry.getEntryDateTime()
+                    + "|" + (departure != null ? departure : "-")
+                    + "|" + (entry.getIp() != null ? entry.getIp() : "");
+        }
+
+        static Event fromLine(String line) {
+            String[] parts = line.split("\\|", 5);
+            User user = new User();
+            user.setId(Integer.parseInt(parts[1]));
+
+            AccessBinnacle entry = new AccessBinnacle();
+            entry.setUser(user);
+            entry.setEntryDateTime(LocalDateTime.parse(parts[2]));
+            if (!"-".equals(parts[3])) {
+                entry.setDepartureDateTime(LocalDateTime.parse(parts[3]));
+            }
+            entry.setIp(parts[4].isEmpty() ? null : parts[4]);
+            return new Event(Kind.valueOf(parts[0]), entry);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.tienda.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta las consultas de una pantalla fuera del hilo de JavaFX y entrega el
+ * resultado con Platform.runLater. Cada pantalla usa su propia instancia: una
+ * nueva consulta reemplaza a la anterior y el resultado de la reemplazada se
+ * descarta aunque ya haya terminado.
+ */
+public class AsyncLoader {
+
+    // Un hilo virtual por consulta; el bloqueo real lo limita el pool de conexiones
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Future<?> current;
+    private long generation;
+    private boolean loading;
+
+    private Consumer<Boolean> onLoadingChanged = loading -> { };
+    private Consumer<Throwable> onError = e -> { };
+
+    /**
+     * Hook para reflejar el estado de carga (deshabilitar botones, mostrar un
+     * mensaje, etc.). Se invoca siempre en el hilo de JavaFX.
+     */
+    public void setOnLoadingChanged(Consumer<Boolean> onLoadingChanged) {
+        this.onLoadingChanged = onLoadingChanged;
+    }
+
+    /**
+     * Manejador por defecto de errores, invocado en el hilo de JavaFX
+     */
+    public void setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    /**
+     * Lanza la consulta en segundo plano. Debe llamarse desde el hilo de JavaFX.
+     */
+    public <T> void submit(Callable<T> query, Consumer<T> onSuccess) {
+        submit(query, onSuccess, onError);
+    }
+
+    public <T> void submit(Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        cancelCurrent();
+        long ticket = ++generation;
+        setLoading(true);
+
+        // No se interrumpe el hilo al cancelar: interrumpir una lectura de socket
+        // dejaría inservible la conexión que luego vuelve al pool
+        current = EXECUTOR.submit(() -> {
+            try {
+                T result = query.call();
+                Platform.runLater(() -> {
+                    if (ticket == generation) {
+                        setLoading(false);
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Throwable e) {
+                System.err.println("Error en consulta en segundo plano: " + e.getMessage());
+                Platform.runLater(() -> {
+                    if (ticket == generation) {
+                        setLoading(false);
+                        onFailure.accept(e);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Descarta la consulta en curso (por ejemplo, al salir de la pantalla)
+     */
+    public void cancel() {
+        cancelCurrent();
+        generation++;
+        setLoading(false);
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    private void cancelCurrent() {
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+    }
+
+    private void setLoading(boolean value) {
+        if (loading != value) {
+            loading = value;
+            onLoadingChanged.accept(value);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tienda.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tablas existentes y su cantidad de filas, leídas del catálogo en una sola
+ * consulta. Los conteos vienen de las estadísticas del motor: son exactos
+ * para distinguir una tabla vacía, que es para lo que se usan al arrancar.
+ */
+public record CatalogSnapshot(Map<String, Long> rowCounts, int schemaVersion) {
+
+    public static CatalogSnapshot load(Connection conn, SqlDialect dialect) throws SQLException {
+        Map<String, Long> rowCounts = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(dialect.catalogQuery())) {
+            while (rs.next()) {
+                rowCounts.put(rs.getString(1).toLowerCase(Locale.ROOT), rs.getLong(2));
+            }
+        }
+
+        int version = 0;
+        if (rowCounts.containsKey("schema_version")) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                if (rs.next()) {
+                    version = rs.getInt(1);
+                }
+            }
+        }
+        return new CatalogSnapshot(rowCounts, version);
+    }
+
+    public boolean exists(String table) {
+        return rowCounts.containsKey(table);
+    }
+
+    public boolean existsAll(Collection<String> tables) {
+        return rowCounts.keySet().containsAll(tables);
+    }
+
+    /**
+     * Una tabla que no existía al tomar la foto también cuenta como vacía
+     */
+    public boolean isEmpty(String table) {
+        return rowCounts.getOrDefault(table, 0L) == 0;
+    }
+}
@@ -0,0 +1,440 @@
+package com.tienda.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ *
+ * Entrega conexiones envueltas en un proxy cuyo close() devuelve la conexión
+ * física al pool en lugar de cerrarla, así los DAO siguen usando
+ * try-with-resources sin cambios.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean leakTrace;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    // Conexiones libres; se reutiliza primero la más reciente (LIFO)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    // Métricas
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String username, String password,
+            int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+            long leakThresholdMillis, boolean leakTrace, long validationIntervalMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.leakTrace = leakThresholdMillis > 0 && leakTrace;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // El llenado hasta minSize se hace aquí y no en el constructor: la base
+        // de datos puede no existir todavía cuando se crea el pool.
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtiene una conexión del pool, esperando como máximo borrowTimeoutMillis
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado obteniendo conexión del pool ("
+                        + borrowTimeoutMillis + " ms, activas=" + active.size() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando conexión del pool", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            recordWait(System.nanoTime() - start);
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            // Capturar la pila es caro; solo se hace si se pidió explícitamente
+            pooled.borrowTrace = leakTrace ? new Exception("Conexión obtenida aquí") : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        // Solo se valida contra el servidor si la conexión lleva un rato sin usarse
+        if (System.currentTimeMillis() - pooled.lastUsedAt < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(5);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Devuelve una conexión al pool, restaurando su estado por defecto
+     */
+    void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            boolean healthy = !shutdown && !pooled.physical.isClosed();
+            if (healthy) {
+                healthy = resetState(pooled);
+            }
+            if (healthy) {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            Connection c = pooled.physical;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            if (c.getTransactionIsolation() != pooled.defaultIsolation) {
+                c.setTransactionIsolation(pooled.defaultIsolation);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error restaurando conexión del pool, se descarta: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.clear();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error cerrando conexión física: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tarea periódica: expulsa conexiones ociosas, rellena hasta minSize y
+     * avisa de conexiones que llevan demasiado tiempo prestadas.
+     */
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("Error en mantenimiento del pool: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledConnection> snapshot = new ArrayList<>(idle);
+        for (PooledConnection pooled : snapshot) {
+            if (totalConnections.get() <= minSize) {
+                break;
+            }
+            if (now - pooled.lastUsedAt > idleTimeoutMillis && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!shutdown && totalConnections.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = open();
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                // Servidor aún no disponible; se reintenta en el próximo ciclo
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : active) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Posible fuga de conexión: prestada hace "
+                        + (now - pooled.borrowedAt) + " ms sin devolverse al pool");
+                if (pooled.borrowTrace != null) {
+                    pooled.borrowTrace.printStackTrace();
+                } else {
+                    System.err.println("Ejecute con -Dtienda.pool.leakTrace=true para ver dónde se obtuvo");
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones y detiene el mantenimiento
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+                active.size(),
+                idle.size(),
+                totalConnections.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / borrows),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()),
+                timeoutCount.get(),
+                leakCount.get(),
+                statementHits.get(),
+                statementMisses.get(),
+                statementEvictions.get());
+    }
+
+    /**
+     * Instantánea de las métricas del pool
+     */
+    public record PoolStats(
+            int active,
+            int idle,
+            int total,
+            int maxSize,
+            int waiting,
+            long borrowCount,
+            long avgWaitMicros,
+            long maxWaitMicros,
+            long timeouts,
+            long leaksDetected,
+            long statementCacheHits,
+            long statementCacheMisses,
+            long statementCacheEvictions) {
+    }
+
+    /**
+     * Conexión física administrada por el pool
+     */
+    final class PooledConnection {
+        final Connection physical;
+        final int defaultIsolation;
+        final StatementCache statementCache;
+        volatile long lastUsedAt;
+        volatile long borrowedAt;
+        volatile Exception borrowTrace;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.statementCache = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementHits, statementMisses, statementEvictions)
+                    : null;
+            this.lastUsedAt = System.currentTimeMillis();
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ConnectionHandle(this));
+        }
+    }
+
+    /**
+     * Vista lógica de una conexión prestada. close() cierra las sentencias que
+     * se abrieron con ella, la devuelve al pool y cualquier uso posterior falla
+     * como si la conexión estuviera cerrada.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeStatements();
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (closed ? ", cerrada]" : "]");
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            if (pooled.statementCache != null && isCacheablePrepare(method, args)) {
+                int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                Statement stmt = pooled.statementCache.prepare(
+                        pooled.physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+                statements.add(stmt);
+                return stmt;
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement stmt) {
+                statements.add(stmt);
+            }
+            return result;
+        }
+
+        private boolean isCacheablePrepare(Method method, Object[] args) {
+            if (!"prepareStatement".equals(method.getName())) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+
+        private void closeStatements() {
+            for (Statement stmt : statements) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    System.err.println("Error cerrando sentencia: " + e.getMessage());
+                }
+            }
+            statements.clear();
+        }
+    }
+}
@@ -1,17 +1,42 @@
     package com.tienda.util;
 
     import java.sql.Connection;
-    import java.sql.DriverManager;
     import java.sql.SQLException;
 
     public class DatabaseConnection {
-        private static final String URL = "jdbc:sqlserver://localhost:1433;databaseName=TiendaElectrodomesticos;encrypt=true;trustServerCertificate=true";
-        private static final String USERNAME = "sa";
-        private static final String PASSWORD = "1234";
+        // Motor de base de datos: sqlserver (por defecto) o embedded (H2 dentro del proceso)
+        private static final SqlDialect DIALECT = SqlDialect.forMode(System.getProperty("tienda.db.mode", "sqlserver"));
+
+        // Los valores por defecto dependen del motor; -Dtienda.db.* permite usar otra base (p. ej. benchmarks)
+        private static final String URL = System.getProperty("tienda.db.url", DIALECT.defaultUrl());
+        private static final String USERNAME = System.getProperty("tienda.db.user", "sa");
+        private static final String PASSWORD = System.getProperty("tienda.db.password", "1234");
+
+        // Dimensionamiento del pool; se puede ajustar por terminal con -Dtienda.pool.*
+        private static final int POOL_MIN_SIZE = Integer.getInteger("tienda.pool.minSize", 2);
+        private static final int POOL_MAX_SIZE = Integer.getInteger("tienda.pool.maxSize", 10);
+        private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("tienda.pool.idleTimeoutMs", 300_000);
+        private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("tienda.pool.borrowTimeoutMs", 10_000);
+        private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("tienda.pool.leakThresholdMs", 60_000);
+        // Guardar la pila de cada préstamo solo para depurar fugas
+        private static final boolean POOL_LEAK_TRACE = Boolean.getBoolean("tienda.pool.leakTrace");
+        private static final long POOL_VALIDATION_INTERVAL_MS = Long.getLong("tienda.pool.validationIntervalMs", 30_000);
+        private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("tienda.pool.statementCacheSize", 64);
         
-        private static DatabaseConnection instance;
+        private static volatile DatabaseConnection instance;
+
+        private final ConnectionPool pool;
         
-        private DatabaseConnection() {}
+        private DatabaseConnection() {
+            try {
+                Class.forName(DIALECT.driverClass());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Driver no encontrado: " + DIALECT.driverClass(), e);
+            }
+            this.pool = new ConnectionPool(URL, USERNAME, PASSWORD,
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MS, POOL_BORROW_TIMEOUT_MS,
+                    POOL_LEAK_THRESHOLD_MS, POOL_LEAK_TRACE, POOL_VALIDATION_INTERVAL_MS, STATEMENT_CACHE_SIZE);
+        }
         
         public static DatabaseConnection getInstance() {
             if (instance == null) {
@@ -24,13 +49,26 @@
             return instance;
         }
         
+        /**
+         * Obtiene una conexión del pool. Cerrarla la devuelve al pool.
+         */
         public Connection getConnection() throws SQLException {
-            try {
-                Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-                return DriverManager.getConnection(URL, USERNAME, PASSWORD);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("Driver de SQL Server no encontrado", e);
-            }
+            return pool.borrow();
+        }
+
+        public SqlDialect getDialect() {
+            return DIALECT;
+        }
+
+        public ConnectionPool.PoolStats getPoolStats() {
+            return pool.getStats();
+        }
+
+        /**
+         * Cierra todas las conexiones del pool; llamar al salir de la aplicación
+         */
+        public void shutdown() {
+            pool.shutdown();
         }
     
     public void closeConnection(Connection connection) {
@@ -42,4 +80,4 @@
             }
         }
     }
-}
\ No newline at end of file
+}
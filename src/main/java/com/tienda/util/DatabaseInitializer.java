@@ -1,17 +1,27 @@
 package com.tienda.util;
 
+import com.tienda.dao.DelinquencySummaryDAO;
+import com.tienda.dao.SalesRollupDAO;
+
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 public class DatabaseInitializer {
 
     private final DatabaseConnection dbConnection;
     private static final String DATABASE_NAME = "TiendaElectrodomesticos";
 
+    private static final List<String> TABLES = List.of(
+            "roles", "users", "clients", "product_categories", "products", "sales",
+            "sale_details", "credits", "access_binnacle", "quotas", "credit_payments");
+
+    // Tablas existentes y filas al arrancar; reemplaza un getTables y un COUNT(*) por tabla
+    private CatalogSnapshot snapshot;
+
     public DatabaseInitializer() {
         this.dbConnection = DatabaseConnection.getInstance();
     }
@@ -23,11 +33,9 @@ public class DatabaseInitializer {
         try {
             System.out.println("Iniciando configuración de base de datos...");
 
-            // Crear base de datos si no existe
-            createDatabaseIfNotExists();
-
-            // Crear todas las tablas
-            createAllTables();
+            if (!createSchema()) {
+                return;
+            }
 
             // Insertar datos iniciales
             insertInitialData();
@@ -41,6 +49,60 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Crea las tablas y aplica las migraciones sin insertar datos iniciales.
+     * Lo usan los benchmarks para medir sobre el mismo esquema que la aplicación.
+     */
+    public void initializeSchema() {
+        try {
+            createSchema();
+        } catch (SQLException e) {
+            System.err.println("Error creando el esquema: " + e.getMessage());
+            throw new RuntimeException("Fallo en la creación del esquema", e);
+        }
+    }
+
+    /**
+     * @return false si el esquema ya estaba completo y al día
+     */
+    private boolean createSchema() throws SQLException {
+        snapshot = loadSnapshot();
+
+        // Arranque normal: esquema completo y en la última versión, no hay nada que hacer
+        if (snapshot.schemaVersion() >= SchemaMigrator.latestVersion() && snapshot.existsAll(TABLES)) {
+            System.out.println("Esquema al día (versión " + snapshot.schemaVersion() + ").");
+            return false;
+        }
+
+        // Crear todas las tablas
+        createAllTables();
+
+        // Aplicar migraciones pendientes (índices y cambios de esquema)
+        new SchemaMigrator(dbConnection).migrate();
+        return true;
+    }
+
+    /**
+     * Lee el catálogo con una conexión del pool. Solo si la base todavía no
+     * existe se abre la conexión a master para crearla.
+     */
+    private CatalogSnapshot loadSnapshot() throws SQLException {
+        SqlDialect dialect = dbConnection.getDialect();
+        try (Connection conn = dbConnection.getConnection()) {
+            return CatalogSnapshot.load(conn, dialect);
+        } catch (SQLException e) {
+            // Los motores embebidos crean la base al conectarse
+            if (!dialect.requiresDatabaseCreation()) {
+                throw e;
+            }
+            System.out.println("No se pudo abrir la base de datos (" + e.getMessage() + "), verificando si existe...");
+            createDatabaseIfNotExists();
+            try (Connection conn = dbConnection.getConnection()) {
+                return CatalogSnapshot.load(conn, dialect);
+            }
+        }
+    }
+
     /**
      * Crea la base de datos si no existe
      */
@@ -104,21 +166,12 @@ public class DatabaseInitializer {
         }
     }
 
-    /**
-     * Verifica si una tabla existe
-     */
-    private boolean tableExists(Connection conn, String tableName) throws SQLException {
-        DatabaseMetaData metaData = conn.getMetaData();
-        try (ResultSet rs = metaData.getTables(null, null, tableName.toUpperCase(), new String[] { "TABLE" })) {
-            return rs.next();
-        }
-    }
 
     /**
      * Crea tabla de roles
      */
     private void createRolesTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "roles")) {
+        if (!snapshot.exists("roles")) {
             System.out.println("Creando tabla: roles");
             String sql = """
                     CREATE TABLE roles (
@@ -139,7 +192,7 @@ public class DatabaseInitializer {
     }
 
     private void createCreditPaymentsTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "credit_payments")) {
+        if (!snapshot.exists("credit_payments")) {
             System.out.println("Creando tabla: pagos de creditos");
             String sql = """
                     CREATE TABLE credit_payments (
@@ -164,7 +217,7 @@ public class DatabaseInitializer {
      * Crea tabla de usuarios
      */
     private void createUsersTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "users")) {
+        if (!snapshot.exists("users")) {
             System.out.println("Creando tabla: users");
             String sql = """
                     CREATE TABLE users (
@@ -191,7 +244,7 @@ public class DatabaseInitializer {
      * Crea tabla de bitácora de acceso
      */
     private void createAccessBinnacleTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "access_binnacle")) {
+        if (!snapshot.exists("access_binnacle")) {
             System.out.println("Creando tabla: access_binnacle");
             String sql = """
                     CREATE TABLE access_binnacle (
@@ -217,7 +270,7 @@ public class DatabaseInitializer {
      * Crea tabla de clientes
      */
     private void createClientsTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "clients")) {
+        if (!snapshot.exists("clients")) {
             System.out.println("Creando tabla: clients");
             String sql = """
                     CREATE TABLE clients (
@@ -244,14 +297,14 @@ public class DatabaseInitializer {
      * Crea tabla de categorías de productos
      */
     private void createProductCategoriesTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "product_categories")) {
+        if (!snapshot.exists("product_categories")) {
             System.out.println("Creando tabla: product_categories");
             String sql = """
                     CREATE TABLE product_categories (
                         id INT IDENTITY(1,1) PRIMARY KEY,
                         name NVARCHAR(50) NOT NULL UNIQUE,
                         iva DECIMAL(5,4) NOT NULL DEFAULT 0.19,
-                        utility DECIMAL(5,4) NOT NULL DEFAULT 0.30,
+                        utility DECIMAL(5,4) NOT NULL DEFAULT 0.30
                     )
                     """;
 
@@ -268,7 +321,7 @@ public class DatabaseInitializer {
      * Crea tabla de productos
      */
     private void createProductsTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "products")) {
+        if (!snapshot.exists("products")) {
             System.out.println("Creando tabla: products");
             String sql = """
                     CREATE TABLE products (
@@ -297,7 +350,7 @@ public class DatabaseInitializer {
      * Crea tabla de ventas
      */
     private void createSalesTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "sales")) {
+        if (!snapshot.exists("sales")) {
             System.out.println("Creando tabla: sales");
             String sql = """
                     CREATE TABLE sales (
@@ -327,7 +380,7 @@ public class DatabaseInitializer {
      * Crea tabla de detalles de venta
      */
     private void createSaleDetailsTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "sale_details")) {
+        if (!snapshot.exists("sale_details")) {
             System.out.println("Creando tabla: sale_details");
             String sql = """
                     CREATE TABLE sale_details (
@@ -357,7 +410,7 @@ public class DatabaseInitializer {
      * Crea tabla de créditos
      */
     private void createCreditsTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "credits")) {
+        if (!snapshot.exists("credits")) {
             System.out.println("Creando tabla: credits");
             String sql = """
                     CREATE TABLE credits (
@@ -386,7 +439,7 @@ public class DatabaseInitializer {
      * Crea tabla de cuotas
      */
     private void createQuotasTable(Connection conn) throws SQLException {
-        if (!tableExists(conn, "quotas")) {
+        if (!snapshot.exists("quotas")) {
             System.out.println("Creando tabla: quotas");
             String sql = """
                     CREATE TABLE quotas (
@@ -442,47 +495,36 @@ public class DatabaseInitializer {
      * Inserta roles iniciales
      */
     private void insertRoles(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM roles";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO roles (name, description) VALUES
-                        ('ADMIN', 'Administrador del sistema con acceso completo'),
-                        ('GERENTE', 'Gerente con acceso a reportes y configuraciones'),
-                        ('VENDEDOR', 'Vendedor con acceso a ventas y clientes'),
-                        ('CAJERO', 'Cajero con acceso limitado a ventas de contado'),
-                        ('AUDITOR', 'Auditor con acceso solo a consultas y reportes')
-                        """;
+        if (snapshot.isEmpty("roles")) {
+            String insertSql = """
+                    INSERT INTO roles (name, description) VALUES
+                    ('ADMIN', 'Administrador del sistema con acceso completo'),
+                    ('GERENTE', 'Gerente con acceso a reportes y configuraciones'),
+                    ('VENDEDOR', 'Vendedor con acceso a ventas y clientes'),
+                    ('CAJERO', 'Cajero con acceso limitado a ventas de contado'),
+                    ('AUDITOR', 'Auditor con acceso solo a consultas y reportes')
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Roles iniciales insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Roles iniciales insertados.");
             }
         }
     }
 
     private void insertCreditPayments(Connection conn) throws SQLException{
-        String checkSql = "SELECT COUNT(*) FROM credit_payments";
-        try(Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-            
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO credit_payments (credit_id, payment_number, payment_date) VALUES 
-                        (2, 1, '2025-10-27'),
-                        (7, 1, '2025-08-22'),
-                        (7, 2, '2025-09-22')
-                        """;
+        if (snapshot.isEmpty("credit_payments")) {
+            String insertSql = """
+                    INSERT INTO credit_payments (credit_id, payment_number, payment_date) VALUES 
+                    (2, 1, '2025-10-27'),
+                    (7, 1, '2025-08-22'),
+                    (7, 2, '2025-09-22')
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Pagos de creditos iniciales insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Pagos de creditos iniciales insertados.");
             }
-
         }
     }
 
@@ -490,23 +532,18 @@ public class DatabaseInitializer {
      * Inserta categorías de productos iniciales
      */
     private void insertProductCategories(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM product_categories";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO product_categories (name, iva, utility) VALUES
-                        ('Audio', 0.16, 0.35),
-                        ('Video', 0.19, 0.39),
-                        ('Tecnología', 0.12, 0.40),
-                        ('Cocina', 0.12, 0.35)
-                        """;
+        if (snapshot.isEmpty("product_categories")) {
+            String insertSql = """
+                    INSERT INTO product_categories (name, iva, utility) VALUES
+                    ('Audio', 0.16, 0.35),
+                    ('Video', 0.19, 0.39),
+                    ('Tecnología', 0.12, 0.40),
+                    ('Cocina', 0.12, 0.35)
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Categorías de productos insertadas.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Categorías de productos insertadas.");
             }
         }
     }
@@ -515,24 +552,19 @@ public class DatabaseInitializer {
      * Inserta clientes de prueba
      */
     private void insertClients(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM clients";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO clients (name, document_type, document_number, phone_number, email, address) VALUES
-                        ('Juan Pérez García', 'CC', '1234567890', '3001234567', 'juan.perez@email.com', 'Calle 10 #20-30'),
-                        ('María López Rodríguez', 'CC', '0987654321', '3109876543', 'maria.lopez@email.com', 'Carrera 15 #25-40'),
-                        ('Carlos Martínez Sánchez', 'CC', '1122334455', '3201122334', 'carlos.martinez@email.com', 'Avenida 20 #30-50'),
-                        ('Ana Gómez Torres', 'CC', '5544332211', '3115544332', 'ana.gomez@email.com', 'Calle 5 #10-15'),
-                        ('Pedro Ramírez Castro', 'CC', '6677889900', '3126677889', 'pedro.ramirez@email.com', 'Carrera 8 #12-18')
-                        """;
+        if (snapshot.isEmpty("clients")) {
+            String insertSql = """
+                    INSERT INTO clients (name, document_type, document_number, phone_number, email, address) VALUES
+                    ('Juan Pérez García', 'CC', '1234567890', '3001234567', 'juan.perez@email.com', 'Calle 10 #20-30'),
+                    ('María López Rodríguez', 'CC', '0987654321', '3109876543', 'maria.lopez@email.com', 'Carrera 15 #25-40'),
+                    ('Carlos Martínez Sánchez', 'CC', '1122334455', '3201122334', 'carlos.martinez@email.com', 'Avenida 20 #30-50'),
+                    ('Ana Gómez Torres', 'CC', '5544332211', '3115544332', 'ana.gomez@email.com', 'Calle 5 #10-15'),
+                    ('Pedro Ramírez Castro', 'CC', '6677889900', '3126677889', 'pedro.ramirez@email.com', 'Carrera 8 #12-18')
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Clientes insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Clientes insertados.");
             }
         }
     }
@@ -541,23 +573,18 @@ public class DatabaseInitializer {
      * Inserta usuarios (cajeros) de prueba
      */
     private void insertUsers(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM users";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO users (name, phone_number, password, role_id, email) VALUES
-                        ('Laura Hernández', '123', 'cajero123', '1', 'laura.hernandez@empresa.com'),
-                        ('Roberto Silva', '123', 'cajero456', '1', 'roberto.silva@empresa.com'),
-                        ('Patricia Morales', '123', 'cajero789', '1', 'patricia.morales@empresa.com'),
-                        ('Diego Vargas', '123', 'admin123', '1', 'diego.vargas@empresa.com')
-                        """;
+        if (snapshot.isEmpty("users")) {
+            String insertSql = """
+                    INSERT INTO users (name, phone_number, password, role_id, email) VALUES
+                    ('Laura Hernández', '123', 'cajero123', '1', 'laura.hernandez@empresa.com'),
+                    ('Roberto Silva', '123', 'cajero456', '1', 'roberto.silva@empresa.com'),
+                    ('Patricia Morales', '123', 'cajero789', '1', 'patricia.morales@empresa.com'),
+                    ('Diego Vargas', '123', 'admin123', '1', 'diego.vargas@empresa.com')
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Usuarios insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Usuarios insertados.");
             }
         }
     }
@@ -566,29 +593,24 @@ public class DatabaseInitializer {
      * Inserta productos de prueba
      */
     private void insertProducts(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM products";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO products (code, name, description, stock, acquisition_value, sale_value, category_id) VALUES
-                        ('AUD001', 'Parlante Bluetooth JBL', 'Parlante portátil con bluetooth 5.0', 25, 120000, 189000, 1),
-                        ('AUD002', 'Audífonos Sony WH-1000XM4', 'Audífonos con cancelación de ruido', 15, 850000, 1350000, 1),
-                        ('VID001', 'Televisor Samsung 55"', 'Smart TV 4K UHD', 10, 1800000, 2700000, 2),
-                        ('VID002', 'Consola PlayStation 5', 'Consola de videojuegos última generación', 8, 2200000, 3300000, 2),
-                        ('TEC001', 'Laptop HP Pavilion', 'Intel i5, 8GB RAM, 512GB SSD', 12, 1900000, 2850000, 3),
-                        ('TEC002', 'Tablet Samsung Galaxy Tab S8', 'Pantalla 11", 128GB', 20, 1200000, 1800000, 3),
-                        ('TEC003', 'Celular iPhone 13', '128GB, Cámara 12MP', 18, 2800000, 4200000, 3),
-                        ('COC001', 'Licuadora Oster', '600W, 3 velocidades', 30, 180000, 270000, 4),
-                        ('COC002', 'Microondas Samsung', '1.1 cu ft, 1000W', 15, 350000, 525000, 4),
-                        ('COC003', 'Cafetera Nespresso', 'Sistema de cápsulas', 22, 420000, 630000, 4)
-                        """;
+        if (snapshot.isEmpty("products")) {
+            String insertSql = """
+                    INSERT INTO products (code, name, description, stock, acquisition_value, sale_value, category_id) VALUES
+                    ('AUD001', 'Parlante Bluetooth JBL', 'Parlante portátil con bluetooth 5.0', 25, 120000, 189000, 1),
+                    ('AUD002', 'Audífonos Sony WH-1000XM4', 'Audífonos con cancelación de ruido', 15, 850000, 1350000, 1),
+                    ('VID001', 'Televisor Samsung 55"', 'Smart TV 4K UHD', 10, 1800000, 2700000, 2),
+                    ('VID002', 'Consola PlayStation 5', 'Consola de videojuegos última generación', 8, 2200000, 3300000, 2),
+                    ('TEC001', 'Laptop HP Pavilion', 'Intel i5, 8GB RAM, 512GB SSD', 12, 1900000, 2850000, 3),
+                    ('TEC002', 'Tablet Samsung Galaxy Tab S8', 'Pantalla 11", 128GB', 20, 1200000, 1800000, 3),
+                    ('TEC003', 'Celular iPhone 13', '128GB, Cámara 12MP', 18, 2800000, 4200000, 3),
+                    ('COC001', 'Licuadora Oster', '600W, 3 velocidades', 30, 180000, 270000, 4),
+                    ('COC002', 'Microondas Samsung', '1.1 cu ft, 1000W', 15, 350000, 525000, 4),
+                    ('COC003', 'Cafetera Nespresso', 'Sistema de cápsulas', 22, 420000, 630000, 4)
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Productos insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Productos insertados.");
             }
         }
     }
@@ -597,44 +619,39 @@ public class DatabaseInitializer {
      * Inserta ventas de prueba
      */
     private void insertPurchases(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM sales";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO sales (date, sale_type, subtotal, iva_total, total, client_id, user_id) VALUES
-                        -- Ventas del mes actual (Septiembre 2025)
-                        ('2025-09-28', 'COUNT', 2700000, 513000, 3213000, 1, 1),
-                        ('2025-09-27', 'CREDIT', 4200000, 504000, 4704000, 2, 2),
-                        ('2025-09-26', 'COUNT', 1800000, 216000, 2016000, 3, 1),
-                        ('2025-09-25', 'CREDIT', 2850000, 342000, 3192000, 4, 3),
-                        ('2025-09-24', 'COUNT', 630000, 75600, 705600, 5, 4),
-                        ('2025-09-23', 'COUNT', 270000, 32400, 302400, 1, 4),
-                        ('2025-09-22', 'CREDIT', 3300000, 627000, 3927000, 2, 3),
-                        ('2025-09-21', 'COUNT', 1350000, 216000, 1566000, 3, 2),
-                        ('2025-09-20', 'COUNT', 525000, 63000, 588000, 4, 1),
-                        ('2025-09-19', 'CREDIT', 1800000, 216000, 2016000, 5, 3),
-
-                        -- Ventas de agosto 2025
-                        ('2025-08-15', 'COUNT', 189000, 30240, 219240, 1, 2),
-                        ('2025-08-10', 'CREDIT', 4200000, 504000, 4704000, 5, 1),
-                        ('2025-08-05', 'COUNT', 2700000, 513000, 3213000, 2, 3),
-
-                        -- Ventas de julio 2025
-                        ('2025-07-20', 'CREDIT', 2850000, 342000, 3192000, 3, 2),
-                        ('2025-07-15', 'COUNT', 1350000, 216000, 1566000, 4, 1),
-
-                        -- Ventas de junio 2025
-                        ('2025-06-25', 'COUNT', 630000, 75600, 705600, 5, 3),
-                        ('2025-06-18', 'CREDIT', 3300000, 627000, 3927000, 1, 2),
-                        ('2025-06-10', 'COUNT', 270000, 32400, 302400, 2, 1)
-                        """;
+        if (snapshot.isEmpty("sales")) {
+            String insertSql = """
+                    INSERT INTO sales (date, sale_type, subtotal, iva_total, total, client_id, user_id) VALUES
+                    -- Ventas del mes actual (Septiembre 2025)
+                    ('2025-09-28', 'COUNT', 2700000, 513000, 3213000, 1, 1),
+                    ('2025-09-27', 'CREDIT', 4200000, 504000, 4704000, 2, 2),
+                    ('2025-09-26', 'COUNT', 1800000, 216000, 2016000, 3, 1),
+                    ('2025-09-25', 'CREDIT', 2850000, 342000, 3192000, 4, 3),
+                    ('2025-09-24', 'COUNT', 630000, 75600, 705600, 5, 4),
+                    ('2025-09-23', 'COUNT', 270000, 32400, 302400, 1, 4),
+                    ('2025-09-22', 'CREDIT', 3300000, 627000, 3927000, 2, 3),
+                    ('2025-09-21', 'COUNT', 1350000, 216000, 1566000, 3, 2),
+                    ('2025-09-20', 'COUNT', 525000, 63000, 588000, 4, 1),
+                    ('2025-09-19', 'CREDIT', 1800000, 216000, 2016000, 5, 3),
+
+                    -- Ventas de agosto 2025
+                    ('2025-08-15', 'COUNT', 189000, 30240, 219240, 1, 2),
+                    ('2025-08-10', 'CREDIT', 4200000, 504000, 4704000, 5, 1),
+                    ('2025-08-05', 'COUNT', 2700000, 513000, 3213000, 2, 3),
+
+                    -- Ventas de julio 2025
+                    ('2025-07-20', 'CREDIT', 2850000, 342000, 3192000, 3, 2),
+                    ('2025-07-15', 'COUNT', 1350000, 216000, 1566000, 4, 1),
+
+                    -- Ventas de junio 2025
+                    ('2025-06-25', 'COUNT', 630000, 75600, 705600, 5, 3),
+                    ('2025-06-18', 'CREDIT', 3300000, 627000, 3927000, 1, 2),
+                    ('2025-06-10', 'COUNT', 270000, 32400, 302400, 2, 1)
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Ventas insertadas.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Ventas insertadas.");
             }
         }
     }
@@ -643,73 +660,70 @@ public class DatabaseInitializer {
      * Inserta detalles de ventas de prueba
      */
     private void insertPurchaseDetails(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM sale_details";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
+        if (snapshot.isEmpty("sale_details")) {
+            String insertSql = """
+                    INSERT INTO sale_details (amount, unit_price, iva_applied, subtotal, sale_id, product_id) VALUES
+                    -- Venta 1: TV Samsung
+                    (1, 2700000, 513000, 2700000, 1, 3),
 
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO sale_details (amount, unit_price, iva_applied, subtotal, sale_id, product_id) VALUES
-                        -- Venta 1: TV Samsung
-                        (1, 2700000, 513000, 2700000, 1, 3),
+                    -- Venta 2: iPhone 13
+                    (1, 4200000, 504000, 4200000, 2, 7),
 
-                        -- Venta 2: iPhone 13
-                        (1, 4200000, 504000, 4200000, 2, 7),
+                    -- Venta 3: Tablet Samsung
+                    (1, 1800000, 216000, 1800000, 3, 6),
 
-                        -- Venta 3: Tablet Samsung
-                        (1, 1800000, 216000, 1800000, 3, 6),
+                    -- Venta 4: Laptop HP
+                    (1, 2850000, 342000, 2850000, 4, 5),
 
-                        -- Venta 4: Laptop HP
-                        (1, 2850000, 342000, 2850000, 4, 5),
+                    -- Venta 5: Cafetera + Licuadora
+                    (1, 630000, 75600, 630000, 5, 10),
 
-                        -- Venta 5: Cafetera + Licuadora
-                        (1, 630000, 75600, 630000, 5, 10),
+                    -- Venta 6: Licuadora
+                    (1, 270000, 32400, 270000, 6, 8),
 
-                        -- Venta 6: Licuadora
-                        (1, 270000, 32400, 270000, 6, 8),
+                    -- Venta 7: PS5
+                    (1, 3300000, 627000, 3300000, 7, 4),
 
-                        -- Venta 7: PS5
-                        (1, 3300000, 627000, 3300000, 7, 4),
+                    -- Venta 8: Audífonos Sony
+                    (1, 1350000, 216000, 1350000, 8, 2),
 
-                        -- Venta 8: Audífonos Sony
-                        (1, 1350000, 216000, 1350000, 8, 2),
+                    -- Venta 9: Microondas
+                    (1, 525000, 63000, 525000, 9, 9),
 
-                        -- Venta 9: Microondas
-                        (1, 525000, 63000, 525000, 9, 9),
+                    -- Venta 10: Tablet Samsung
+                    (1, 1800000, 216000, 1800000, 10, 6),
 
-                        -- Venta 10: Tablet Samsung
-                        (1, 1800000, 216000, 1800000, 10, 6),
+                    -- Venta 11: Parlante JBL
+                    (1, 189000, 30240, 189000, 11, 1),
 
-                        -- Venta 11: Parlante JBL
-                        (1, 189000, 30240, 189000, 11, 1),
+                    -- Venta 12: iPhone 13
+                    (1, 4200000, 504000, 4200000, 12, 7),
 
-                        -- Venta 12: iPhone 13
-                        (1, 4200000, 504000, 4200000, 12, 7),
+                    -- Venta 13: TV Samsung
+                    (1, 2700000, 513000, 2700000, 13, 3),
 
-                        -- Venta 13: TV Samsung
-                        (1, 2700000, 513000, 2700000, 13, 3),
+                    -- Venta 14: Laptop HP
+                    (1, 2850000, 342000, 2850000, 14, 5),
 
-                        -- Venta 14: Laptop HP
-                        (1, 2850000, 342000, 2850000, 14, 5),
+                    -- Venta 15: Audífonos Sony
+                    (1, 1350000, 216000, 1350000, 15, 2),
 
-                        -- Venta 15: Audífonos Sony
-                        (1, 1350000, 216000, 1350000, 15, 2),
+                    -- Venta 16: Cafetera
+                    (1, 630000, 75600, 630000, 16, 10),
 
-                        -- Venta 16: Cafetera
-                        (1, 630000, 75600, 630000, 16, 10),
+                    -- Venta 17: PS5
+                    (1, 3300000, 627000, 3300000, 17, 4),
 
-                        -- Venta 17: PS5
-                        (1, 3300000, 627000, 3300000, 17, 4),
-
-                        -- Venta 18: Licuadora
-                        (1, 270000, 32400, 270000, 18, 8)
-                        """;
+                    -- Venta 18: Licuadora
+                    (1, 270000, 32400, 270000, 18, 8)
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Detalles de ventas insertados.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Detalles de ventas insertados.");
             }
+            // Ventas de ejemplo completas: llenar el resumen diario
+            new SalesRollupDAO().rebuild(conn);
         }
     }
 
@@ -717,42 +731,38 @@ public class DatabaseInitializer {
      * Inserta créditos de prueba
      */
     private void insertCredits(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM credits";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                try (Statement insertStatement = conn.createStatement()) {
-                    insertStatement.executeUpdate("SET IDENTITY_INSERT credits ON");
-                    String insertSql = """
-                            INSERT INTO credits (id, initial_quota, amount_financed, months, interest_rate, created_at, state, sale_id) VALUES
-                            -- Crédito 1: iPhone 13 (Venta 2)
-                            (1, 940800, 3763200, 12, 2.5, '2025-09-27', 'VIGENTE', 2),
+        if (snapshot.isEmpty("credits")) {
+            try (Statement insertStatement = conn.createStatement()) {
+                dbConnection.getDialect().beginIdentityInsert(insertStatement, "credits");
+                String insertSql = """
+                        INSERT INTO credits (id, initial_quota, amount_financed, months, interest_rate, created_at, state, sale_id) VALUES
+                        -- Crédito 1: iPhone 13 (Venta 2)
+                        (1, 940800, 3763200, 12, 2.5, '2025-09-27', 'VIGENTE', 2),
 
-                            -- Crédito 2: Laptop HP (Venta 4)
-                            (2, 638400, 2553600, 6, 2.0, '2025-09-25', 'VIGENTE', 4),
+                        -- Crédito 2: Laptop HP (Venta 4)
+                        (2, 638400, 2553600, 6, 2.0, '2025-09-25', 'VIGENTE', 4),
 
-                            -- Crédito 3: PS5 (Venta 7)
-                            (3, 785400, 3141600, 12, 2.5, '2025-09-22', 'VIGENTE', 7),
+                        -- Crédito 3: PS5 (Venta 7)
+                        (3, 785400, 3141600, 12, 2.5, '2025-09-22', 'VIGENTE', 7),
 
-                            -- Crédito 4: Tablet Samsung (Venta 10)
-                            (4, 403200, 1612800, 6, 2.0, '2025-09-19', 'VIGENTE', 10),
+                        -- Crédito 4: Tablet Samsung (Venta 10)
+                        (4, 403200, 1612800, 6, 2.0, '2025-09-19', 'VIGENTE', 10),
 
-                            -- Crédito 5: iPhone 13 (Venta 12) - Agosto
-                            (5, 940800, 3763200, 12, 2.5, '2025-08-10', 'VIGENTE', 12),
+                        -- Crédito 5: iPhone 13 (Venta 12) - Agosto
+                        (5, 940800, 3763200, 12, 2.5, '2025-08-10', 'VIGENTE', 12),
 
-                            -- Crédito 6: Laptop HP (Venta 14) - Julio
-                            (6, 638400, 2553600, 6, 2.0, '2025-07-20', 'VIGENTE', 14),
+                        -- Crédito 6: Laptop HP (Venta 14) - Julio
+                        (6, 638400, 2553600, 6, 2.0, '2025-07-20', 'VIGENTE', 14),
 
-                            -- Crédito 7: PS5 (Venta 17) - Junio
-                            (7, 785400, 3141600, 12, 2.5, '2025-06-18', 'VIGENTE', 17)
-                            """;
+                        -- Crédito 7: PS5 (Venta 17) - Junio
+                        (7, 785400, 3141600, 12, 2.5, '2025-06-18', 'VIGENTE', 17)
+                        """;
 
-                    try (Statement insertStmt = conn.createStatement()) {
-                        insertStmt.executeUpdate(insertSql);
-                        System.out.println("Créditos insertados.");
-                    }
+                try (Statement insertStmt = conn.createStatement()) {
+                    insertStmt.executeUpdate(insertSql);
+                    System.out.println("Créditos insertados.");
                 }
+                dbConnection.getDialect().endIdentityInsert(insertStatement, "credits");
             }
         }
     }
@@ -761,77 +771,74 @@ public class DatabaseInitializer {
      * Inserta cuotas de prueba para los créditos
      */
     private void insertQuotas(Connection conn) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM quotas";
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(checkSql)) {
-
-            if (rs.next() && rs.getInt(1) == 0) {
-                String insertSql = """
-                        INSERT INTO quotas (quota_number, expiration_date, quota_value, payed_value, payed_at, state, credit_id) VALUES
-                        -- Cuotas para Crédito 1 (12 meses - iPhone)
-                        (1, '2025-10-27', 313600, 313600, '2025-10-25', 'PAGADA', 1),
-                        (2, '2025-11-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (3, '2025-12-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (4, '2026-01-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (5, '2026-02-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (6, '2026-03-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (7, '2026-04-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (8, '2026-05-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (9, '2026-06-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (10, '2026-07-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (11, '2026-08-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-                        (12, '2026-09-27', 313600, NULL, NULL, 'PENDIENTE', 1),
-
-                        -- Cuotas para Crédito 2 (6 meses - Laptop)
-                        (1, '2025-10-25', 425600, 425600, '2025-10-23', 'PAGADA', 2),
-                        (2, '2025-11-25', 425600, NULL, NULL, 'PENDIENTE', 2),
-                        (3, '2025-12-25', 425600, NULL, NULL, 'PENDIENTE', 2),
-                        (4, '2026-01-25', 425600, NULL, NULL, 'PENDIENTE', 2),
-                        (5, '2026-02-25', 425600, NULL, NULL, 'PENDIENTE', 2),
-                        (6, '2026-03-25', 425600, NULL, NULL, 'PENDIENTE', 2),
-
-                        -- Cuotas para Crédito 3 (12 meses - PS5)
-                        (1, '2025-10-22', 261800, 261800, '2025-10-20', 'PAGADA', 3),
-                        (2, '2025-11-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (3, '2025-12-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (4, '2026-01-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (5, '2026-02-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (6, '2026-03-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (7, '2026-04-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (8, '2026-05-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (9, '2026-06-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (10, '2026-07-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (11, '2026-08-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-                        (12, '2026-09-22', 261800, NULL, NULL, 'PENDIENTE', 3),
-
-                        -- Cuotas para Crédito 4 (6 meses - Tablet)
-                        (1, '2025-10-19', 268800, 268800, '2025-10-18', 'PAGADA', 4),
-                        (2, '2025-11-19', 268800, NULL, NULL, 'PENDIENTE', 4),
-                        (3, '2025-12-19', 268800, NULL, NULL, 'PENDIENTE', 4),
-                        (4, '2026-01-19', 268800, NULL, NULL, 'PENDIENTE', 4),
-                        (5, '2026-02-19', 268800, NULL, NULL, 'PENDIENTE', 4),
-                        (6, '2026-03-19', 268800, NULL, NULL, 'PENDIENTE', 4),
-
-                        -- Cuotas para Crédito 5 (12 meses - iPhone Agosto) - algunas pagadas
-                        (1, '2025-09-10', 313600, 313600, '2025-09-08', 'PAGADA', 5),
-                        (2, '2025-10-10', 313600, NULL, NULL, 'VENCIDA', 5),
-                        (3, '2025-11-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (4, '2025-12-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (5, '2026-01-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (6, '2026-02-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (7, '2026-03-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (8, '2026-04-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (9, '2026-05-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (10, '2026-06-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (11, '2026-07-10', 313600, NULL, NULL, 'PENDIENTE', 5),
-                        (12, '2026-08-10', 313600, NULL, NULL, 'PENDIENTE', 5)
-                        """;
+        if (snapshot.isEmpty("quotas")) {
+            String insertSql = """
+                    INSERT INTO quotas (quota_number, expiration_date, quota_value, payed_value, payed_at, state, credit_id) VALUES
+                    -- Cuotas para Crédito 1 (12 meses - iPhone)
+                    (1, '2025-10-27', 313600, 313600, '2025-10-25', 'PAGADA', 1),
+                    (2, '2025-11-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (3, '2025-12-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (4, '2026-01-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (5, '2026-02-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (6, '2026-03-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (7, '2026-04-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (8, '2026-05-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (9, '2026-06-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (10, '2026-07-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (11, '2026-08-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+                    (12, '2026-09-27', 313600, NULL, NULL, 'PENDIENTE', 1),
+
+                    -- Cuotas para Crédito 2 (6 meses - Laptop)
+                    (1, '2025-10-25', 425600, 425600, '2025-10-23', 'PAGADA', 2),
+                    (2, '2025-11-25', 425600, NULL, NULL, 'PENDIENTE', 2),
+                    (3, '2025-12-25', 425600, NULL, NULL, 'PENDIENTE', 2),
+                    (4, '2026-01-25', 425600, NULL, NULL, 'PENDIENTE', 2),
+                    (5, '2026-02-25', 425600, NULL, NULL, 'PENDIENTE', 2),
+                    (6, '2026-03-25', 425600, NULL, NULL, 'PENDIENTE', 2),
+
+                    -- Cuotas para Crédito 3 (12 meses - PS5)
+                    (1, '2025-10-22', 261800, 261800, '2025-10-20', 'PAGADA', 3),
+                    (2, '2025-11-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (3, '2025-12-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (4, '2026-01-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (5, '2026-02-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (6, '2026-03-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (7, '2026-04-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (8, '2026-05-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (9, '2026-06-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (10, '2026-07-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (11, '2026-08-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+                    (12, '2026-09-22', 261800, NULL, NULL, 'PENDIENTE', 3),
+
+                    -- Cuotas para Crédito 4 (6 meses - Tablet)
+                    (1, '2025-10-19', 268800, 268800, '2025-10-18', 'PAGADA', 4),
+                    (2, '2025-11-19', 268800, NULL, NULL, 'PENDIENTE', 4),
+                    (3, '2025-12-19', 268800, NULL, NULL, 'PENDIENTE', 4),
+                    (4, '2026-01-19', 268800, NULL, NULL, 'PENDIENTE', 4),
+                    (5, '2026-02-19', 268800, NULL, NULL, 'PENDIENTE', 4),
+                    (6, '2026-03-19', 268800, NULL, NULL, 'PENDIENTE', 4),
+
+                    -- Cuotas para Crédito 5 (12 meses - iPhone Agosto) - algunas pagadas
+                    (1, '2025-09-10', 313600, 313600, '2025-09-08', 'PAGADA', 5),
+                    (2, '2025-10-10', 313600, NULL, NULL, 'VENCIDA', 5),
+                    (3, '2025-11-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (4, '2025-12-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (5, '2026-01-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (6, '2026-02-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (7, '2026-03-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (8, '2026-04-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (9, '2026-05-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (10, '2026-06-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (11, '2026-07-10', 313600, NULL, NULL, 'PENDIENTE', 5),
+                    (12, '2026-08-10', 313600, NULL, NULL, 'PENDIENTE', 5)
+                    """;
 
-                try (Statement insertStmt = conn.createStatement()) {
-                    insertStmt.executeUpdate(insertSql);
-                    System.out.println("Cuotas insertadas.");
-                }
+            try (Statement insertStmt = conn.createStatement()) {
+                insertStmt.executeUpdate(insertSql);
+                System.out.println("Cuotas insertadas.");
             }
+            // Las cuotas de ejemplo incluyen vencidas: llenar el resumen de mora
+            new DelinquencySummaryDAO().rebuild(conn);
         }
     }
 
@@ -0,0 +1,103 @@
+package com.tienda.util;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * H2 embebido en el proceso, para cajas de una sola terminal, pruebas y
+ * benchmarks. Corre en modo de compatibilidad con SQL Server, así que los
+ * tipos del esquema (NVARCHAR, DATETIME2, IDENTITY) y TOP funcionan igual.
+ */
+public class H2Dialect implements SqlDialect {
+
+    @Override
+    public String driverClass() {
+        return "org.h2.Driver";
+    }
+
+    @Override
+    public String defaultUrl() {
+        String path = System.getProperty("user.home") + File.separator + ".tienda" + File.separator + "tienda";
+        return "jdbc:h2:file:" + path + ";MODE=MSSQLServer";
+    }
+
+    @Override
+    public boolean requiresDatabaseCreation() {
+        // H2 crea el archivo de la base al conectarse por primera vez
+        return false;
+    }
+
+    @Override
+    public String currentDate() {
+        return "CURRENT_DATE";
+    }
+
+    @Override
+    public String currentTimestamp() {
+        return "LOCALTIMESTAMP";
+    }
+
+    @Override
+    public String daysBetween(String from, String to) {
+        return "DATEDIFF(DAY, " + from + ", " + to + ")";
+    }
+
+    @Override
+    public String catalogQuery() {
+        return """
+                SELECT TABLE_NAME, ROW_COUNT_ESTIMATE
+                FROM INFORMATION_SCHEMA.TABLES
+                WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_TYPE = 'BASE TABLE'
+                """;
+    }
+
+    @Override
+    public String createTableIfNotExists(String table, String columns) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (" + columns + ")";
+    }
+
+    @Override
+    public String groupingSets(String baseQuery, List<String> groupColumns, String aggregates,
+                               List<List<String>> sets) {
+        // H2 no tiene GROUPING SETS: un GROUP BY por nivel sobre la misma CTE
+        List<String> levels = new ArrayList<>();
+        for (int i = 0; i < sets.size(); i++) {
+            List<String> set = sets.get(i);
+            List<String> columns = new ArrayList<>();
+            for (String column : groupColumns) {
+                columns.add(set.contains(column) ? column : "NULL AS " + column);
+            }
+            String sql = "SELECT " + String.join(", ", columns) + ", " + aggregates + ", " + i + " AS grouping_set"
+                    + " FROM base";
+            if (!set.isEmpty()) {
+                sql += " GROUP BY " + String.join(", ", set);
+            }
+            levels.add(sql);
+        }
+        return "WITH base AS (" + baseQuery + ") " + String.join(" UNION ALL ", levels);
+    }
+
+    @Override
+    public String createIndexIfNotExists(String name, String table, String columns, String includeColumns) {
+        return "CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")";
+    }
+
+    @Override
+    public void beginIdentityInsert(Statement stmt, String table) {
+        // H2 acepta valores explícitos en columnas de identidad sin configuración
+    }
+
+    @Override
+    public void endIdentityInsert(Statement stmt, String table) throws SQLException {
+        // La secuencia no avanza con los valores explícitos; se reinicia después del mayor
+        int next;
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            next = rs.next() ? rs.getInt(1) : 1;
+        }
+        stmt.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+}
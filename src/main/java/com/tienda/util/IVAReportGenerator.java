@@ -15,15 +15,32 @@ import java.io.File;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 public class IVAReportGenerator {
 
     private static final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "CO"));
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd");
 
-    public static File generateReport(List<SaleReportDTO> sales, double totalIVA, 
+    // Filas que se acumulan en la tabla antes de escribirlas al PDF
+    private static final int FLUSH_EVERY = 200;
+
+    /**
+     * Origen de las filas del reporte. Debe entregar cada venta al consumidor y
+     * devolver false si la lectura falló.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        boolean forEach(Consumer<SaleReportDTO> row);
+    }
+
+    /**
+     * Escribe el reporte a medida que llegan las filas: la tabla es de tipo
+     * "large" y se vacía al PDF cada FLUSH_EVERY filas, así la memoria no
+     * depende de la duración del periodo.
+     */
+    public static File generateReport(RowSource rows, double totalIVA,
                                      Date startDate, Date endDate) throws Exception {
         
         // Crear archivo en el directorio de descargas del usuario
@@ -37,74 +54,93 @@ public class IVAReportGenerator {
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
 
-        // Título
-        Paragraph title = new Paragraph("IVA REPORT - DIAN")
-                .setFontSize(20)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER);
-        document.add(title);
-
-        // Periodo
-        Paragraph period = new Paragraph("Period from: " + dateFormat.format(startDate) + 
-                                        " to " + dateFormat.format(endDate))
-                .setFontSize(12)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20);
-        document.add(period);
-
-        // Resumen
-        Paragraph summary = new Paragraph("Total IVA Tax: " + currencyFormat.format(totalIVA))
-                .setFontSize(14)
-                .setBold()
-                .setBackgroundColor(ColorConstants.LIGHT_GRAY)
-                .setPadding(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20);
-        document.add(summary);
-
-        // Tabla de ventas
-        float[] columnWidths = {1, 3, 1, 2, 2, 2, 2, 2, 3};
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
-
-        // Headers
-        addTableHeader(table, "Id");
-        addTableHeader(table, "Product");
-        addTableHeader(table, "Quant.");
-        addTableHeader(table, "Date");
-        addTableHeader(table, "Type");
-        addTableHeader(table, "Subtotal");
-        addTableHeader(table, "IVA");
-        addTableHeader(table, "Total");
-        addTableHeader(table, "Client");
-
-        // Datos
-        for (SaleReportDTO sale : sales) {
-            table.addCell(new Cell().add(new Paragraph(String.valueOf(sale.getSaleId()))));
-            table.addCell(new Cell().add(new Paragraph(sale.getProductName())));
-            table.addCell(new Cell().add(new Paragraph(String.valueOf(sale.getQuantity()))));
-            table.addCell(new Cell().add(new Paragraph(dateFormat.format(sale.getDate()))));
-            table.addCell(new Cell().add(new Paragraph(sale.getSaleType())));
-            table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getSubtotal()))));
-            table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getIvaTotal()))));
-            table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getTotal()))));
-            table.addCell(new Cell().add(new Paragraph(sale.getClientName())));
-        }
+        boolean completed = false;
+        try {
+            // Título
+            Paragraph title = new Paragraph("IVA REPORT - DIAN")
+                    .setFontSize(20)
+                    .setBold()
+                    .setTextAlignment(TextAlignment.CENTER);
+            document.add(title);
+
+            // Periodo
+            Paragraph period = new Paragraph("Period from: " + dateFormat.format(startDate) + 
+                                            " to " + dateFormat.format(endDate))
+                    .setFontSize(12)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20);
+            document.add(period);
 
-        document.add(table);
+            // Resumen
+            Paragraph summary = new Paragraph("Total IVA Tax: " + currencyFormat.format(totalIVA))
+                    .setFontSize(14)
+                    .setBold()
+                    .setBackgroundColor(ColorConstants.LIGHT_GRAY)
+                    .setPadding(10)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20);
+            document.add(summary);
 
-        // Footer
-        Paragraph footer = new Paragraph("Generado el: " + dateFormat.format(new Date()))
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setMarginTop(20);
-        document.add(footer);
+            // Tabla de ventas; se agrega al documento antes de llenarla para poder vaciarla por partes
+            float[] columnWidths = {1, 3, 1, 2, 2, 2, 2, 2, 3};
+            Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
+            table.setWidth(UnitValue.createPercentValue(100));
 
-        document.close();
+            // Headers
+            addTableHeader(table, "Id");
+            addTableHeader(table, "Product");
+            addTableHeader(table, "Quant.");
+            addTableHeader(table, "Date");
+            addTableHeader(table, "Type");
+            addTableHeader(table, "Subtotal");
+            addTableHeader(table, "IVA");
+            addTableHeader(table, "Total");
+            addTableHeader(table, "Client");
+            document.add(table);
+
+            // Datos
+            int[] written = {0};
+            boolean read = rows.forEach(sale -> {
+                addRow(table, sale);
+                if (++written[0] % FLUSH_EVERY == 0) {
+                    table.flush();
+                }
+            });
+            if (!read) {
+                throw new Exception("No se pudieron leer las ventas del periodo");
+            }
+            table.complete();
+
+            // Footer
+            Paragraph footer = new Paragraph("Generado el: " + dateFormat.format(new Date()))
+                    .setFontSize(10)
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .setMarginTop(20);
+            document.add(footer);
+            completed = true;
+        } finally {
+            document.close();
+            if (!completed) {
+                // No dejar un reporte a medias en Descargas
+                pdfFile.delete();
+            }
+        }
         
         return pdfFile;
     }
 
+    private static void addRow(Table table, SaleReportDTO sale) {
+        table.addCell(new Cell().add(new Paragraph(String.valueOf(sale.getSaleId()))));
+        table.addCell(new Cell().add(new Paragraph(sale.getProductName())));
+        table.addCell(new Cell().add(new Paragraph(String.valueOf(sale.getQuantity()))));
+        table.addCell(new Cell().add(new Paragraph(dateFormat.format(sale.getDate()))));
+        table.addCell(new Cell().add(new Paragraph(sale.getSaleType())));
+        table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getSubtotal()))));
+        table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getIvaTotal()))));
+        table.addCell(new Cell().add(new Paragraph(currencyFormat.format(sale.getTotal()))));
+        table.addCell(new Cell().add(new Paragraph(sale.getClientName())));
+    }
+
     private static void addTableHeader(Table table, String headerText) {
         Cell header = new Cell()
                 .add(new Paragraph(headerText).setBold())
@@ -0,0 +1,86 @@
+package com.tienda.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria para datos de referencia que casi nunca cambian
+ * (categorías, roles).
+ *
+ * Se carga completa con una sola consulta la primera vez que se usa. Los DAO
+ * la invalidan al escribir y el TTL cubre cambios hechos por otras terminales.
+ * Las entidades devueltas son compartidas: no deben modificarse.
+ */
+public class ReferenceCache<K, V> {
+
+    /**
+     * Consulta que trae todas las filas de la tabla de referencia
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        List<V> loadAll() throws SQLException;
+    }
+
+    private final String name;
+    private final Loader<V> loader;
+    private final Function<V, K> keyExtractor;
+    private final long ttlMillis;
+
+    private volatile Snapshot<K, V> snapshot;
+
+    public ReferenceCache(String name, Loader<V> loader, Function<V, K> keyExtractor, long ttlMillis) {
+        this.name = name;
+        this.loader = loader;
+        this.keyExtractor = keyExtractor;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key) {
+        return current().byKey.get(key);
+    }
+
+    public List<V> getAll() {
+        return new ArrayList<>(current().byKey.values());
+    }
+
+    /**
+     * Descarta el contenido; la próxima lectura recarga desde la base de datos
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot<K, V> current() {
+        Snapshot<K, V> s = snapshot;
+        if (s != null && System.currentTimeMillis() - s.loadedAt < ttlMillis) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s != null && System.currentTimeMillis() - s.loadedAt < ttlMillis) {
+                return s;
+            }
+            try {
+                Map<K, V> byKey = new LinkedHashMap<>();
+                for (V value : loader.loadAll()) {
+                    byKey.put(keyExtractor.apply(value), value);
+                }
+                s = new Snapshot<>(Collections.unmodifiableMap(byKey), System.currentTimeMillis());
+                snapshot = s;
+                return s;
+            } catch (SQLException e) {
+                System.err.println("Error cargando caché de " + name + ": " + e.getMessage());
+                // Si hay una copia vencida se sigue usando; si no, no se guarda nada
+                return s != null ? s : new Snapshot<>(Map.of(), 0);
+            }
+        }
+    }
+
+    private record Snapshot<K, V>(Map<K, V> byKey, long loadedAt) {
+    }
+}
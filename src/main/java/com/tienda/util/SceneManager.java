@@ -1,7 +1,13 @@
 package com.tienda.util;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -10,10 +16,45 @@ import javafx.stage.Stage;
 
 public class SceneManager {
 
+    /**
+     * Cuánto tiempo se conserva una vista después de construirla
+     */
+    public enum Retention {
+        // Se reconstruye cada vez (login, registro, vistas sin onShow())
+        NONE,
+        // Se conserva hasta cerrar sesión
+        SESSION
+    }
+
     private static Stage mainStage;
     private static double DEFAULT_WIDTH = 1000;
     private static double DEFAULT_HEIGHT = 700;
 
+    // Solo se conservan las vistas sin datos o cuyo controlador los refresca en
+    // onShow(); las demás se reconstruyen en cada visita para no mostrar datos viejos
+    private static final Map<String, Retention> RETENTION = new ConcurrentHashMap<>(Map.of(
+            "/views/MainWindow.fxml", Retention.SESSION,
+            "/views/Calculator.fxml", Retention.SESSION,
+            "/views/Calendar.fxml", Retention.SESSION,
+            "/views/SalesHistoryView.fxml", Retention.SESSION,
+            "/views/CreatePurchase.fxml", Retention.SESSION,
+            "/views/ClientManagement.fxml", Retention.SESSION,
+            "/views/AccessLog.fxml", Retention.SESSION
+    ));
+
+    // Vistas a las que se suele ir después del login; se arman mientras se muestra la bienvenida
+    private static final List<String> PRELOAD_AFTER_LOGIN = List.of(
+            "/views/SalesHistoryView.fxml",
+            "/views/CreatePurchase.fxml",
+            "/views/ClientManagement.fxml"
+    );
+
+    // Solo se accede desde el hilo de JavaFX
+    private static final Map<String, CachedView> cache = new HashMap<>();
+    private static CachedView current;
+    // Aumenta al cerrar sesión; una precarga de la sesión anterior se descarta
+    private static long sessionGeneration;
+
     public static void setStage(Stage stage) {
         mainStage = stage;
         // Aseguramos que al cerrar la ventana actualizamos la bitácora
@@ -27,20 +68,91 @@ public class SceneManager {
         });
     }
 
+    public static void setRetention(String fxmlPath, Retention retention) {
+        RETENTION.put(fxmlPath, retention);
+        if (retention == Retention.NONE) {
+            cache.remove(fxmlPath);
+        }
+    }
+
     public static void switchScene(String fxmlPath, String title) {
         try {
-            FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
-            Parent root = loader.load();
-            Scene scene = new Scene(root, DEFAULT_WIDTH, DEFAULT_HEIGHT);
-            mainStage.setScene(scene);
+            CachedView view = cache.get(fxmlPath);
+            if (view == null) {
+                view = load(fxmlPath);
+                if (retentionOf(fxmlPath) != Retention.NONE) {
+                    cache.put(fxmlPath, view);
+                }
+            }
+
+            if (current != null && current.scene() != view.scene()) {
+                notifyHide(current);
+            }
+            current = view;
+
+            mainStage.setScene(view.scene());
             mainStage.setTitle(title);
-            mainStage.setScene(scene);
             mainStage.show();
+
+            // Las vistas cargan sus datos al mostrarse, no al construirse
+            notifyShow(view);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Arma las vistas más usadas después del login, para que la primera
+     * navegación no tenga que esperar el parseo del FXML
+     */
+    public static void preloadAfterLogin() {
+        preload(PRELOAD_AFTER_LOGIN);
+    }
+
+    /**
+     * Encola la construcción de cada vista en el hilo de JavaFX, una por
+     * evento para no congelar la ventana. Solo se arma la vista: sus datos se
+     * consultan en onShow() al navegar a ella. Debe llamarse desde el hilo de
+     * JavaFX.
+     */
+    public static void preload(List<String> fxmlPaths) {
+        long generation = sessionGeneration;
+        for (String fxmlPath : fxmlPaths) {
+            if (retentionOf(fxmlPath) == Retention.NONE) {
+                continue;
+            }
+            Platform.runLater(() -> {
+                // Se cerró sesión desde que se pidió, o el usuario ya navegó a la vista
+                if (generation != sessionGeneration || cache.containsKey(fxmlPath)) {
+                    return;
+                }
+                try {
+                    cache.put(fxmlPath, load(fxmlPath));
+                } catch (Exception e) {
+                    // Se cargará normalmente al navegar
+                    System.err.println("No se pudo precargar " + fxmlPath + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Descarta las vistas guardadas durante la sesión (al cerrar sesión)
+     */
+    public static void clearSessionViews() {
+        sessionGeneration++;
+        Iterator<Map.Entry<String, CachedView>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CachedView> entry = it.next();
+            if (retentionOf(entry.getKey()) == Retention.SESSION) {
+                if (entry.getValue() != current) {
+                    notifyHide(entry.getValue());
+                }
+                it.remove();
+            }
+        }
+    }
+
     public static Stage openModal(String fxmlPath, String title, boolean modal) {
         try {
             FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
@@ -62,4 +174,29 @@ public class SceneManager {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private static CachedView load(String fxmlPath) throws IOException {
+        FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
+        Parent root = loader.load();
+        return new CachedView(new Scene(root, DEFAULT_WIDTH, DEFAULT_HEIGHT), loader.getController());
+    }
+
+    private static Retention retentionOf(String fxmlPath) {
+        return RETENTION.getOrDefault(fxmlPath, Retention.NONE);
+    }
+
+    private static void notifyShow(CachedView view) {
+        if (view.controller() instanceof ViewLifecycle lifecycle) {
+            lifecycle.onShow();
+        }
+    }
+
+    private static void notifyHide(CachedView view) {
+        if (view.controller() instanceof ViewLifecycle lifecycle) {
+            lifecycle.onHide();
+        }
+    }
+
+    private record CachedView(Scene scene, Object controller) {
+    }
+}
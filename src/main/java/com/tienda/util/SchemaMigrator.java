@@ -0,0 +1,219 @@
+package com.tienda.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Aplica en orden los cambios de esquema posteriores a la creación de tablas.
+ * Cada migración se registra en schema_version y corre en su propia
+ * transacción, así que solo se ejecutan las que faltan. Las sentencias se
+ * escriben idempotentes para tolerar bases creadas a mano.
+ */
+public class SchemaMigrator {
+
+    private final DatabaseConnection dbConnection;
+    private final SqlDialect dialect;
+
+    /**
+     * Migraciones en orden de versión. Nunca se edita una ya publicada:
+     * los cambios nuevos van en una versión nueva al final de la lista.
+     */
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Índices de ventas por fecha, cliente y usuario", List.of(
+                    // Historial de ventas: rango de fechas y paginación por (date, id)
+                    createIndex("IX_sales_date", "sales",
+                            "date DESC, id DESC", "sale_type, subtotal, iva_total, total, client_id, user_id"),
+                    createIndex("IX_sales_client", "sales",
+                            "client_id, date", "sale_type, total"),
+                    // Ventas por usuario en un periodo
+                    createIndex("IX_sales_user", "sales",
+                            "user_id, date", "sale_type, total")
+            )),
+            new Migration(2, "Índice de detalles por venta", List.of(
+                    createIndex("IX_sale_details_sale", "sale_details",
+                            "sale_id", "product_id, amount, unit_price, iva_applied, subtotal")
+            )),
+            new Migration(3, "Índices de cuotas por crédito y vencimiento", List.of(
+                    createIndex("IX_quotas_credit_state", "quotas",
+                            "credit_id, state, expiration_date", "quota_number, quota_value, payed_value"),
+                    // Búsqueda de cuotas vencidas sin pasar por el crédito
+                    createIndex("IX_quotas_state_expiration", "quotas",
+                            "state, expiration_date", "credit_id, payed_value")
+            )),
+            new Migration(4, "Índices de la bitácora de acceso", List.of(
+                    createIndex("IX_access_binnacle_user", "access_binnacle",
+                            "user_id, entry_date_time DESC", "departure_date_time, ip"),
+                    createIndex("IX_access_binnacle_entry", "access_binnacle",
+                            "entry_date_time DESC", "user_id, departure_date_time, ip")
+            )),
+            new Migration(5, "Resumen de mora por crédito", List.of(
+                    // Lo mantiene DelinquencySummaryDAO al cambiar cuotas; aquí solo se llena por primera vez
+                    createTable("delinquency_summary", """
+                            credit_id INT PRIMARY KEY,
+                            overdue_quotas INT NOT NULL,
+                            total_debt DECIMAL(14,2) NOT NULL,
+                            first_overdue_date DATE NOT NULL,
+                            last_payment_date DATE,
+                            updated_at DATETIME2 NOT NULL,
+                            FOREIGN KEY (credit_id) REFERENCES credits(id) ON DELETE CASCADE
+                            """),
+                    dialect -> "DELETE FROM delinquency_summary",
+                    dialect -> """
+                            INSERT INTO delinquency_summary
+                                (credit_id, overdue_quotas, total_debt, first_overdue_date, last_payment_date, updated_at)
+                            SELECT q.credit_id,
+                                   SUM(CASE WHEN q.state = 'VENCIDA' THEN 1 ELSE 0 END),
+                                   SUM(CASE WHEN q.state = 'VENCIDA' THEN q.quota_value - COALESCE(q.payed_value, 0) ELSE 0 END),
+                                   MIN(CASE WHEN q.state = 'VENCIDA' THEN q.expiration_date END),
+                                   MAX(q.payed_at),
+                                   %s
+                            FROM quotas q
+                            GROUP BY q.credit_id
+                            HAVING SUM(CASE WHEN q.state = 'VENCIDA' THEN 1 ELSE 0 END) > 0
+                            """.formatted(dialect.currentTimestamp())
+            )),
+            new Migration(6, "Puntos de control de tareas programadas", List.of(
+                    createTable("job_checkpoints", """
+                            job_name NVARCHAR(50) PRIMARY KEY,
+                            last_expiration_date DATE NOT NULL,
+                            last_id INT NOT NULL,
+                            updated_at DATETIME2 NOT NULL
+                            """)
+            )),
+            new Migration(7, "Resumen diario de ventas", List.of(
+                    // Lo mantiene SalesRollupDAO al registrar ventas; category_id = 0 es el total de la venta
+                    createTable("sales_daily_rollup", """
+                            sale_date DATE NOT NULL,
+                            user_id INT NOT NULL,
+                            sale_type NVARCHAR(20) NOT NULL,
+                            category_id INT NOT NULL,
+                            sale_count INT NOT NULL,
+                            subtotal DECIMAL(14,2) NOT NULL,
+                            iva_total DECIMAL(14,2) NOT NULL,
+                            total DECIMAL(14,2) NOT NULL,
+                            PRIMARY KEY (sale_date, user_id, sale_type, category_id)
+                            """),
+                    dialect -> "DELETE FROM sales_daily_rollup",
+                    dialect -> """
+                            INSERT INTO sales_daily_rollup
+                                (sale_date, user_id, sale_type, category_id, sale_count, subtotal, iva_total, total)
+                            SELECT s.date, s.user_id, s.sale_type, 0,
+                                   COUNT(*), SUM(s.subtotal), SUM(s.iva_total), SUM(s.total)
+                            FROM sales s
+                            GROUP BY s.date, s.user_id, s.sale_type
+                            """,
+                    dialect -> """
+                            INSERT INTO sales_daily_rollup
+                                (sale_date, user_id, sale_type, category_id, sale_count, subtotal, iva_total, total)
+                            SELECT s.date, s.user_id, s.sale_type, p.category_id,
+                                   COUNT(DISTINCT s.id), SUM(sd.subtotal), SUM(sd.iva_applied),
+                                   SUM(sd.subtotal + sd.iva_applied)
+                            FROM sales s
+                            INNER JOIN sale_details sd ON sd.sale_id = s.id
+                            INNER JOIN products p ON p.id = sd.product_id
+                            GROUP BY s.date, s.user_id, s.sale_type, p.category_id
+                            """
+            ))
+    );
+
+    /**
+     * Versión que queda aplicada al terminar migrate()
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    public SchemaMigrator(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.dialect = dbConnection.getDialect();
+    }
+
+    /**
+     * Aplica las migraciones pendientes
+     */
+    public void migrate() {
+        try (Connection conn = dbConnection.getConnection()) {
+            createVersionTable(conn);
+            int current = currentVersion(conn);
+
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version() > current) {
+                    apply(conn, migration);
+                    current = migration.version();
+                }
+            }
+            System.out.println("Esquema en la versión " + current + ".");
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error aplicando migraciones: " + e.getMessage(), e);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        String sql = dialect.createTableIfNotExists("schema_version", """
+                version INT PRIMARY KEY,
+                description NVARCHAR(200) NOT NULL,
+                applied_at DATETIME2 NOT NULL DEFAULT %s
+                """.formatted(dialect.currentTimestamp()));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Ejecuta la migración y registra su versión en la misma transacción
+     */
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        System.out.println("Aplicando migración " + migration.version() + ": " + migration.description());
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (Step step : migration.steps()) {
+                    stmt.executeUpdate(step.toSql(dialect));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static Step createTable(String table, String columns) {
+        return dialect -> dialect.createTableIfNotExists(table, columns);
+    }
+
+    private static Step createIndex(String name, String table, String columns, String includeColumns) {
+        return dialect -> dialect.createIndexIfNotExists(name, table, columns, includeColumns);
+    }
+
+    /**
+     * Paso de una migración; el SQL se genera según el motor en uso
+     */
+    @FunctionalInterface
+    interface Step {
+        String toSql(SqlDialect dialect);
+    }
+
+    private record Migration(int version, String description, List<Step> steps) {
+    }
+}
@@ -1,52 +1,51 @@
 package com.tienda.util;
 
-import com.tienda.dao.AccessBinnacleDAO;
 import com.tienda.model.AccessBinnacle;
 import com.tienda.model.User;
 
 import java.net.InetAddress;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class SessionManager {
 
     private static User currentUser;
-    private static Integer currentBinnacleId;
-    private static AccessBinnacleDAO binnacleDAO;
+    private static AccessBinnacle currentEntry;
+    private static AccessLogWriter accessLogWriter;
 
-    public static void init(AccessBinnacleDAO dao) {
-        binnacleDAO = dao;
+    public static void init(AccessLogWriter writer) {
+        accessLogWriter = writer;
     }
 
+    /**
+     * La entrada a la bitácora solo se encola; el login no espera a la base
+     * de datos (ver AccessLogWriter)
+     */
     public static void startSession(User user) {
-        if (binnacleDAO == null) {
-            throw new IllegalStateException("SessionManager no inicializado. Llama a SessionManager.init(dao) al iniciar la app.");
+        if (accessLogWriter == null) {
+            throw new IllegalStateException("SessionManager no inicializado. Llama a SessionManager.init(writer) al iniciar la app.");
         }
-        try {
-            currentUser = user;
+        currentUser = user;
 
-            AccessBinnacle ab = new AccessBinnacle();
-            ab.setUser(user);
-            ab.setEntryDateTime(LocalDateTime.now());
-            ab.setIp(getLocalIpAddress());
+        AccessBinnacle ab = new AccessBinnacle();
+        ab.setUser(user);
+        // La salida ubica la fila por usuario y hora de entrada, sin el id generado
+        ab.setEntryDateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        ab.setIp(getLocalIpAddress());
 
-            int id = binnacleDAO.create(ab);
-            currentBinnacleId = id;
-        } catch (Exception e) {
-            e.printStackTrace();
-            // Decide si fallar el login o solo loguear la excepción; aquí sólo imprimimos
-        }
+        accessLogWriter.recordEntry(ab);
+        currentEntry = ab;
     }
 
     public static void endSession() {
-        if (binnacleDAO == null) return;
-        if (currentBinnacleId == null) {
+        if (accessLogWriter == null) return;
+        if (currentEntry == null) {
             clearSession();
             return;
         }
         try {
-            binnacleDAO.updateDepartureTime(currentBinnacleId, LocalDateTime.now());
-        } catch (Exception e) {
-            e.printStackTrace();
+            currentEntry.setDepartureDateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+            accessLogWriter.recordExit(currentEntry);
         } finally {
             clearSession();
         }
@@ -59,15 +58,15 @@ public class SessionManager {
 
     private static void clearSession() {
         currentUser = null;
-        currentBinnacleId = null;
+        currentEntry = null;
     }
 
     public static User getCurrentUser() {
         return currentUser;
     }
 
-    public static Integer getCurrentBinnacleId() {
-        return currentBinnacleId;
+    public static AccessBinnacle getCurrentEntry() {
+        return currentEntry;
     }
 
     private static String getLocalIpAddress() {
@@ -0,0 +1,81 @@
+package com.tienda.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Diferencias de SQL entre los motores soportados. El esquema y la mayoría de
+ * las consultas son comunes; aquí solo va lo que cambia de un motor a otro.
+ * Se elige con -Dtienda.db.mode (sqlserver por defecto, o embedded).
+ */
+public interface SqlDialect {
+
+    String driverClass();
+
+    /**
+     * URL por defecto cuando no se indica -Dtienda.db.url
+     */
+    String defaultUrl();
+
+    /**
+     * Si el motor necesita crear la base de datos antes de conectarse a ella
+     */
+    boolean requiresDatabaseCreation();
+
+    /**
+     * Expresión con la fecha actual, sin hora
+     */
+    String currentDate();
+
+    /**
+     * Expresión con la fecha y hora actuales
+     */
+    String currentTimestamp();
+
+    /**
+     * Días transcurridos entre dos expresiones de fecha
+     */
+    String daysBetween(String from, String to);
+
+    /**
+     * Consulta al catálogo que devuelve (nombre de tabla, cantidad de filas)
+     * de todas las tablas del esquema actual
+     */
+    String catalogQuery();
+
+    String createTableIfNotExists(String table, String columns);
+
+    /**
+     * Agrega las filas de baseQuery en varios niveles a la vez. Cada nivel de
+     * sets es una lista de columnas de groupColumns (vacía = total general).
+     * Cada fila trae todas las columnas de agrupación (NULL las que no son de
+     * su nivel), las agregaciones y grouping_set con la posición de su nivel.
+     * Los parámetros de baseQuery aparecen una sola vez en el resultado.
+     */
+    String groupingSets(String baseQuery, List<String> groupColumns, String aggregates, List<List<String>> sets);
+
+    /**
+     * Índice no agrupado. Las columnas incluidas solo se usan donde el motor
+     * las soporta; en los demás el índice queda sobre las columnas clave.
+     */
+    String createIndexIfNotExists(String name, String table, String columns, String includeColumns);
+
+    /**
+     * Permite insertar valores explícitos en la columna de identidad
+     */
+    void beginIdentityInsert(Statement stmt, String table) throws SQLException;
+
+    /**
+     * Vuelve a generar la identidad automáticamente a partir del mayor valor insertado
+     */
+    void endIdentityInsert(Statement stmt, String table) throws SQLException;
+
+    static SqlDialect forMode(String mode) {
+        return switch (mode.toLowerCase()) {
+            case "sqlserver" -> new SqlServerDialect();
+            case "embedded", "h2" -> new H2Dialect();
+            default -> throw new IllegalArgumentException("Modo de base de datos no soportado: " + mode);
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.tienda.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL Server, el motor de la instalación normal de la tienda
+ */
+public class SqlServerDialect implements SqlDialect {
+
+    @Override
+    public String driverClass() {
+        return "com.microsoft.sqlserver.jdbc.SQLServerDriver";
+    }
+
+    @Override
+    public String defaultUrl() {
+        return "jdbc:sqlserver://localhost:1433;databaseName=TiendaElectrodomesticos;encrypt=true;trustServerCertificate=true";
+    }
+
+    @Override
+    public boolean requiresDatabaseCreation() {
+        return true;
+    }
+
+    @Override
+    public String currentDate() {
+        return "CAST(GETDATE() AS DATE)";
+    }
+
+    @Override
+    public String currentTimestamp() {
+        return "GETDATE()";
+    }
+
+    @Override
+    public String daysBetween(String from, String to) {
+        return "DATEDIFF(DAY, " + from + ", " + to + ")";
+    }
+
+    @Override
+    public String catalogQuery() {
+        return """
+                SELECT t.name, SUM(p.rows)
+                FROM sys.tables t
+                JOIN sys.partitions p ON p.object_id = t.object_id AND p.index_id IN (0, 1)
+                WHERE t.schema_id = SCHEMA_ID()
+                GROUP BY t.name
+                """;
+    }
+
+    @Override
+    public String createTableIfNotExists(String table, String columns) {
+        return "IF OBJECT_ID('" + table + "', 'U') IS NULL CREATE TABLE " + table + " (" + columns + ")";
+    }
+
+    @Override
+    public String groupingSets(String baseQuery, List<String> groupColumns, String aggregates,
+                               List<List<String>> sets) {
+        // GROUPING() distingue el NULL de "no agrupado por esta columna" de un NULL real
+        StringBuilder level = new StringBuilder("CASE");
+        StringBuilder groupBy = new StringBuilder();
+        for (int i = 0; i < sets.size(); i++) {
+            List<String> set = sets.get(i);
+            List<String> conditions = new ArrayList<>();
+            for (String column : groupColumns) {
+                conditions.add("GROUPING(" + column + ") = " + (set.contains(column) ? 0 : 1));
+            }
+            level.append(" WHEN ").append(String.join(" AND ", conditions)).append(" THEN ").append(i);
+            groupBy.append(i > 0 ? ", " : "").append("(").append(String.join(", ", set)).append(")");
+        }
+        level.append(" END");
+
+        return "SELECT " + String.join(", ", groupColumns) + ", " + aggregates + ", " + level + " AS grouping_set"
+                + " FROM (" + baseQuery + ") base"
+                + " GROUP BY GROUPING SETS (" + groupBy + ")";
+    }
+
+    @Override
+    public String createIndexIfNotExists(String name, String table, String columns, String includeColumns) {
+        String sql = "IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = '" + name
+                + "' AND object_id = OBJECT_ID('" + table + "')) "
+                + "CREATE NONCLUSTERED INDEX " + name + " ON " + table + " (" + columns + ")";
+        if (includeColumns != null) {
+            sql += " INCLUDE (" + includeColumns + ")";
+        }
+        return sql;
+    }
+
+    @Override
+    public void beginIdentityInsert(Statement stmt, String table) throws SQLException {
+        stmt.executeUpdate("SET IDENTITY_INSERT " + table + " ON");
+    }
+
+    @Override
+    public void endIdentityInsert(Statement stmt, String table) throws SQLException {
+        // SQL Server ajusta la semilla al mayor valor insertado por sí mismo
+        stmt.executeUpdate("SET IDENTITY_INSERT " + table + " OFF");
+    }
+}
@@ -0,0 +1,191 @@
+package com.tienda.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física, indexada por el
+ * texto SQL. Los DAO siguen llamando prepareStatement()/close() como siempre:
+ * close() solo devuelve la sentencia a la caché.
+ */
+class StatementCache {
+
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    // Orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Devuelve una vista lógica de la sentencia para el SQL indicado,
+     * preparándola en el servidor solo si no estaba en caché.
+     */
+    PreparedStatement prepare(Connection physical, Connection handle, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse && entry.physical.isClosed()) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+        } else if (entry != null) {
+            // La misma sentencia ya está abierta en esta conexión; se prepara una aparte
+            misses.incrementAndGet();
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            misses.incrementAndGet();
+            entry = new Entry(physical.prepareStatement(sql, autoGeneratedKeys));
+            entries.put(key, entry);
+            evictOverflow();
+        }
+
+        entry.inUse = true;
+        return entry.newHandle(handle);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.inUse) {
+                continue;
+            }
+            it.remove();
+            evictions.incrementAndGet();
+            eldest.closePhysical();
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias físicas (al descartar la conexión)
+     */
+    void clear() {
+        for (Entry entry : entries.values()) {
+            entry.closePhysical();
+        }
+        entries.clear();
+    }
+
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    private static final class Entry {
+        private final PreparedStatement physical;
+        private boolean inUse;
+
+        Entry(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement newHandle(Connection connectionHandle) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new StatementHandle(this, connectionHandle));
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error cerrando sentencia en caché: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Vista lógica de una sentencia en caché. close() cierra los ResultSet que
+     * abrió, limpia los parámetros y la deja disponible para el siguiente uso.
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        private final Entry entry;
+        private final Connection connectionHandle;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private boolean closed;
+
+        StatementHandle(Entry entry, Connection connectionHandle) {
+            this.entry = entry;
+            this.connectionHandle = connectionHandle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    logicalClose();
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "getConnection":
+                    return connectionHandle;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet rs) {
+                openResults.add(rs);
+            }
+            return result;
+        }
+
+        private void logicalClose() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                entry.physical.clearParameters();
+                entry.physical.clearBatch();
+                entry.physical.clearWarnings();
+                entry.inUse = false;
+            } catch (SQLException e) {
+                // Sentencia en estado dudoso: se cierra y se reemplaza en el próximo uso
+                entry.closePhysical();
+                entry.inUse = false;
+            } finally {
+                openResults.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.tienda.util;
+
+/**
+ * Lo implementan los controladores de vistas que SceneManager guarda en caché.
+ * initialize() solo arma la vista; los datos se cargan en onShow(), que se
+ * llama cada vez que la vista pasa a la ventana principal, también la primera.
+ * Así una vista precargada no consulta hasta que se muestra.
+ */
+public interface ViewLifecycle {
+
+    /**
+     * La vista pasa a la ventana principal: cargar o refrescar los datos
+     */
+    default void onShow() {
+    }
+
+    /**
+     * La vista sale de la ventana principal: detener consultas o temporizadores
+     */
+    default void onHide() {
+    }
+}